@@ -9,18 +9,23 @@ import com.example.ecommerce.backend.dto.TokenRefreshResponse;
 import com.example.ecommerce.backend.model.RefreshToken;
 import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.security.jwt.JwtUtils;
+import com.example.ecommerce.backend.security.services.LoginAttemptThrottle;
+import com.example.ecommerce.backend.security.services.TooManyRequestsException;
 import com.example.ecommerce.backend.security.services.UserPrincipal;
 import com.example.ecommerce.backend.service.RefreshTokenService;
 import com.example.ecommerce.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -35,12 +40,24 @@ public class AuthController {
     private final UserService userService;
     private final RefreshTokenService refreshTokenService;
     private final JwtUtils jwtUtils;
+    private final LoginAttemptThrottle loginAttemptThrottle;
 
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // The client behind a trusted proxy, see server.forward-headers-strategy
+        String clientIp = request.getRemoteAddr();
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+            loginAttemptThrottle.assertAllowed(loginRequest.getEmail(), clientIp);
+
+            Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+            } catch (AuthenticationException e) {
+                loginAttemptThrottle.recordFailure(loginRequest.getEmail(), clientIp);
+                throw e;
+            }
+            loginAttemptThrottle.recordSuccess(loginRequest.getEmail());
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
@@ -50,16 +67,18 @@ public class AuthController {
                     .map(item -> item.getAuthority())
                     .collect(Collectors.toList());
 
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(userPrincipal.getId());
+            String refreshToken = refreshTokenService.createRefreshToken(userPrincipal.getId());
 
             return ResponseEntity.ok(new ApiResponse("Login successful", new JwtResponse(
                     jwt,
-                    refreshToken.getAccessToken(),
+                    refreshToken,
                     userPrincipal.getId(),
                     userPrincipal.getName(),
                     userPrincipal.getEmail(),
                     roles
             )));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse("Login failed: " + e.getMessage(), null));
@@ -67,8 +86,12 @@ public class AuthController {
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest signUpRequest) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest signUpRequest, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
         try {
+            loginAttemptThrottle.assertAllowed(null, clientIp);
+            loginAttemptThrottle.recordIpAttempt(clientIp);
+
             User user = userService.registerUser(
                     signUpRequest.getName(),
                     signUpRequest.getEmail(),
@@ -77,27 +100,31 @@ public class AuthController {
                     signUpRequest.getPhoneNumber()
             );
 
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(signUpRequest.getEmail(), signUpRequest.getPassword()));
+            // The password was just hashed for this user, so skip a second BCrypt round
+            // through the authentication manager
+            UserPrincipal userPrincipal = UserPrincipal.create(user);
+            Authentication authentication = new UsernamePasswordAuthenticationToken(
+                    userPrincipal, null, userPrincipal.getAuthorities());
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
 
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
             List<String> roles = userPrincipal.getAuthorities().stream()
                     .map(item -> item.getAuthority())
                     .collect(Collectors.toList());
 
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(userPrincipal.getId());
+            String refreshToken = refreshTokenService.createRefreshToken(userPrincipal.getId());
 
             return ResponseEntity.ok(new ApiResponse("User registered successfully!", new JwtResponse(
                     jwt,
-                    refreshToken.getAccessToken(),
+                    refreshToken,
                     userPrincipal.getId(),
                     userPrincipal.getName(),
                     userPrincipal.getEmail(),
                     roles
             )));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse("Registration failed: " + e.getMessage(), null));
@@ -112,9 +139,14 @@ public class AuthController {
                 .map(refreshTokenService::verifyExpiration)
                 .map(RefreshToken::getUser)
                 .map(user -> {
-                    String token = jwtUtils.generateTokenFromUsername(user.getEmail());
+                    if (!user.getIsActive()) {
+                        throw new RuntimeException("User account is deactivated");
+                    }
+                    String token = jwtUtils.generateTokenForUser(user);
+                    // Rotate on every refresh: the presented token's hash is replaced, so it stops working
+                    String refreshToken = refreshTokenService.createRefreshToken(user.getId());
                     return ResponseEntity.ok(new ApiResponse("Token refreshed successfully",
-                            new TokenRefreshResponse(token, requestRefreshToken)));
+                            new TokenRefreshResponse(token, refreshToken)));
                 })
                 .orElseThrow(() -> new RuntimeException("Refresh token is not in database!"));
     }
@@ -132,4 +164,9 @@ public class AuthController {
                 .body(new ApiResponse("User not authenticated", null));
     }
 
+    private ResponseEntity<?> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ApiResponse(e.getMessage(), null));
+    }
 }
\ No newline at end of file
@@ -2,12 +2,10 @@ package com.example.ecommerce.backend.controller;
 
 import com.example.ecommerce.backend.dto.AddToCartRequest;
 import com.example.ecommerce.backend.dto.ApiResponse;
-import com.example.ecommerce.backend.dto.CartItemResponse;
+import com.example.ecommerce.backend.dto.CartLineResponse;
 import com.example.ecommerce.backend.dto.CartSummaryResponse;
-import com.example.ecommerce.backend.model.CartItem;
-import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.security.services.UserPrincipal;
 import com.example.ecommerce.backend.service.CartService;
-import com.example.ecommerce.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,9 +13,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -27,23 +22,11 @@ import java.util.stream.Collectors;
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
 
     @GetMapping
     public ResponseEntity<?> getCart(Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<CartItem> cartItems = cartService.getCartItems(user.getId());
-            List<CartItemResponse> itemResponses = cartItems.stream()
-                    .map(CartItemResponse::new)
-                    .collect(Collectors.toList());
-
-            BigDecimal total = cartService.getCartTotal(user.getId());
-            Integer itemCount = cartService.getCartItemCount(user.getId());
-
-            CartSummaryResponse response = new CartSummaryResponse(itemResponses, total, itemCount);
+            CartSummaryResponse response = cartService.getCartView(currentUserId(auth));
             return ResponseEntity.ok(new ApiResponse("Cart retrieved successfully", response));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -54,11 +37,9 @@ public class CartController {
     @PostMapping("/add")
     public ResponseEntity<?> addToCart(@Valid @RequestBody AddToCartRequest request, Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Long userId = currentUserId(auth);
 
-            CartItem cartItem = cartService.addToCart(user.getId(), request.getProductId(), request.getQuantity());
-            CartItemResponse response = new CartItemResponse(cartItem);
+            CartLineResponse response = cartService.addToCart(userId, request.getProductId(), request.getQuantity());
 
             return ResponseEntity.ok(new ApiResponse("Item added to cart successfully", response));
         } catch (Exception e) {
@@ -70,16 +51,14 @@ public class CartController {
     @PutMapping("/update/{productId}")
     public ResponseEntity<?> updateCartItem(@PathVariable Long productId, @RequestParam Integer quantity, Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Long userId = currentUserId(auth);
 
-            CartItem cartItem = cartService.updateCartItem(user.getId(), productId, quantity);
+            CartLineResponse response = cartService.updateCartItem(userId, productId, quantity);
 
-            if (cartItem == null) {
+            if (response == null) {
                 return ResponseEntity.ok(new ApiResponse("Item removed from cart", null));
             }
 
-            CartItemResponse response = new CartItemResponse(cartItem);
             return ResponseEntity.ok(new ApiResponse("Cart item updated successfully", response));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -90,10 +69,9 @@ public class CartController {
     @DeleteMapping("/remove/{productId}")
     public ResponseEntity<?> removeFromCart(@PathVariable Long productId, Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Long userId = currentUserId(auth);
 
-            cartService.removeFromCart(user.getId(), productId);
+            cartService.removeFromCart(userId, productId);
             return ResponseEntity.ok(new ApiResponse("Item removed from cart successfully", null));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -104,10 +82,9 @@ public class CartController {
     @DeleteMapping("/clear")
     public ResponseEntity<?> clearCart(Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Long userId = currentUserId(auth);
 
-            cartService.clearCart(user.getId());
+            cartService.clearCart(userId);
             return ResponseEntity.ok(new ApiResponse("Cart cleared successfully", null));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -118,10 +95,9 @@ public class CartController {
     @GetMapping("/count")
     public ResponseEntity<?> getCartItemCount(Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Long userId = currentUserId(auth);
 
-            Integer count = cartService.getCartItemCount(user.getId());
+            Integer count = cartService.getCartItemCount(userId);
             return ResponseEntity.ok(new ApiResponse("Cart count retrieved successfully", count));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -134,16 +110,15 @@ public class CartController {
     @PostMapping("/validate")
     public ResponseEntity<?> validateCart(Authentication auth) {
         try {
-            User user = userService.getUserByEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Long userId = currentUserId(auth);
 
-            boolean isValid = cartService.validateCartForCheckout(user.getId());
+            boolean isValid = cartService.validateCartForCheckout(userId);
 
             if (isValid) {
                 return ResponseEntity.ok(new ApiResponse("Cart is valid for checkout", true));
             } else {
                 // Sync cart with inventory to fix issues
-                cartService.syncCartWithInventory(user.getId());
+                cartService.syncCartWithInventory(userId);
                 return ResponseEntity.badRequest()
                         .body(new ApiResponse("Cart validation failed. Some items were updated or removed.", false));
             }
@@ -152,4 +127,12 @@ public class CartController {
                     .body(new ApiResponse("Cart validation failed: " + e.getMessage(), null));
         }
     }
+
+    // The JWT filter already resolved the caller; no need to look the user up by email again
+    private Long currentUserId(Authentication auth) {
+        if (auth != null && auth.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getId();
+        }
+        throw new RuntimeException("User not found");
+    }
 }
\ No newline at end of file
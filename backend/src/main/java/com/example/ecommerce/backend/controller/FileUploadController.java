@@ -4,6 +4,7 @@ import com.example.ecommerce.backend.dto.ApiResponse;
 import com.example.ecommerce.backend.model.Product;
 import com.example.ecommerce.backend.repository.ProductRepository;
 import com.example.ecommerce.backend.service.impl.CloudinaryService;
+import com.example.ecommerce.backend.service.impl.ProductChangeNotifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,6 +26,9 @@ public class FileUploadController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductChangeNotifier productChangeNotifier;
+
     // Allowed image types for free tier optimization
     private final List<String> ALLOWED_TYPES = Arrays.asList(
             "image/jpeg", "image/jpg", "image/png", "image/webp"
@@ -59,6 +63,7 @@ public class FileUploadController {
                     .orElseThrow(() -> new RuntimeException("Product not found with ID: " + productId));
             product.setImageUrl(originalUrl);
             productRepository.save(product);
+            productChangeNotifier.productChanged(productId);
 
             Map<String, Object> response = Map.of(
                     "publicId", publicId,
@@ -1,16 +1,22 @@
 package com.example.ecommerce.backend.controller;
 
 import com.example.ecommerce.backend.dto.ApiResponse;
+import com.example.ecommerce.backend.dto.CursorPage;
 import com.example.ecommerce.backend.dto.InventoryResponse;
 import com.example.ecommerce.backend.dto.InventoryUpdateRequest;
+import com.example.ecommerce.backend.dto.KeysetCursor;
 import com.example.ecommerce.backend.dto.UpdateStockRequest;
 import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventoryMovement;
 import com.example.ecommerce.backend.service.InventoryService;
+import com.example.ecommerce.backend.service.impl.ApproximateCountCache;
+import com.example.ecommerce.backend.service.impl.InventoryLedger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,6 +35,8 @@ import java.util.stream.Collectors;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final ApproximateCountCache approximateCountCache;
+    private final InventoryLedger inventoryLedger;
 
     @PatchMapping("/{productId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SELLER')")
@@ -48,8 +57,20 @@ public class InventoryController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "updatedAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
+            if (cursor != null) {
+                Sort sort = KeysetCursor.sort(sortBy, sortDir, Set.of("updatedAt", "id"));
+                Window<Inventory> inventories = inventoryService.getRecentlyUpdatedInventory(
+                        KeysetCursor.decode(cursor, sort), sort, KeysetCursor.pageSize(size));
+                Long total = withTotal ? approximateCountCache.get("inventory", inventoryService::countAllInventory) : null;
+
+                CursorPage<InventoryResponse> response = CursorPage.of(inventories, sort, InventoryResponse::new, total);
+                return ResponseEntity.ok(new ApiResponse("Inventory retrieved successfully", response));
+            }
+
             Sort sort = sortDir.equalsIgnoreCase("desc") ?
                     Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
@@ -259,6 +280,43 @@ public class InventoryController {
         }
     }
 
+    @GetMapping("/product/{productId}/movements")
+    public ResponseEntity<?> getMovements(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Page<InventoryMovement> movements = inventoryService.getMovements(productId, PageRequest.of(page, size));
+            return ResponseEntity.ok(new ApiResponse("Inventory movements retrieved successfully", movements));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get inventory movements: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/ledger/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> verifyLedger() {
+        try {
+            return ResponseEntity.ok(new ApiResponse("Inventory ledger verified", inventoryLedger.verify()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to verify inventory ledger: " + e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/ledger/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> restoreFromLedger() {
+        try {
+            int restored = inventoryLedger.restore();
+            return ResponseEntity.ok(new ApiResponse("Inventory restored from ledger", restored));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to restore inventory from ledger: " + e.getMessage(), null));
+        }
+    }
+
     @PostMapping("/bulk-update")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> bulkUpdateInventory(@RequestBody List<UpdateStockRequest> updates) {
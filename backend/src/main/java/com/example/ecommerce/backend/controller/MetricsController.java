@@ -0,0 +1,152 @@
+package com.example.ecommerce.backend.controller;
+
+import com.example.ecommerce.backend.dto.ApiResponse;
+import com.example.ecommerce.backend.search.ProductSearchService;
+import com.example.ecommerce.backend.search.SearchAnalytics;
+import com.example.ecommerce.backend.security.services.BoundedPasswordEncoder;
+import com.example.ecommerce.backend.security.services.LoginAttemptThrottle;
+import com.example.ecommerce.backend.security.services.UserPrincipalCache;
+import com.example.ecommerce.backend.service.impl.ApproximateCountCache;
+import com.example.ecommerce.backend.service.impl.CatalogResponseCache;
+import com.example.ecommerce.backend.service.impl.CartStockReconciler;
+import com.example.ecommerce.backend.service.impl.CartStore;
+import com.example.ecommerce.backend.service.impl.CatalogVersion;
+import com.example.ecommerce.backend.service.impl.ExpiredCartPurger;
+import com.example.ecommerce.backend.service.impl.InventoryJournal;
+import com.example.ecommerce.backend.service.impl.InventoryLedger;
+import com.example.ecommerce.backend.service.impl.OrderOutbox;
+import com.example.ecommerce.backend.service.impl.ProductDetailCache;
+import com.example.ecommerce.backend.service.impl.StockReconciler;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/metrics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    private final UserPrincipalCache userPrincipalCache;
+    private final ProductDetailCache productDetailCache;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CatalogVersion catalogVersion;
+    private final ApproximateCountCache approximateCountCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final LoginAttemptThrottle loginAttemptThrottle;
+    private final ProductSearchService productSearchService;
+    private final SearchAnalytics searchAnalytics;
+    private final StockReconciler stockReconciler;
+    private final InventoryJournal inventoryJournal;
+    private final InventoryLedger inventoryLedger;
+    private final CartStore cartStore;
+    private final ExpiredCartPurger expiredCartPurger;
+    private final CartStockReconciler cartStockReconciler;
+    private final OrderOutbox orderOutbox;
+
+    @GetMapping("/caches")
+    public ResponseEntity<?> getCacheMetrics() {
+        try {
+            Map<String, Object> caches = new LinkedHashMap<>();
+            caches.put("userPrincipals", toMap(userPrincipalCache.stats(), userPrincipalCache.estimatedSize()));
+            caches.put("productDetails", toMap(productDetailCache.stats(), productDetailCache.estimatedSize()));
+            caches.put("catalogResponses", toMap(catalogResponseCache.stats(), catalogResponseCache.estimatedSize()));
+            caches.put("approximateCounts", toMap(approximateCountCache.stats(), approximateCountCache.estimatedSize()));
+            caches.put("catalogVersion", catalogVersion.current());
+
+            return ResponseEntity.ok(new ApiResponse("Cache metrics retrieved successfully", caches));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get cache metrics: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/auth")
+    public ResponseEntity<?> getAuthMetrics() {
+        try {
+            Map<String, Object> auth = new LinkedHashMap<>();
+            auth.put("passwordHashing", passwordEncoder.metrics());
+            auth.put("throttledKeys", loginAttemptThrottle.trackedKeys());
+
+            return ResponseEntity.ok(new ApiResponse("Auth metrics retrieved successfully", auth));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get auth metrics: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/inventory")
+    public ResponseEntity<?> getInventoryMetrics() {
+        try {
+            Map<String, Object> inventory = new LinkedHashMap<>();
+            inventory.put("stockReconciliation", stockReconciler.stats());
+            inventory.put("journal", inventoryJournal.stats());
+            inventory.put("snapshots", inventoryLedger.stats());
+
+            return ResponseEntity.ok(new ApiResponse("Inventory metrics retrieved successfully", inventory));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get inventory metrics: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/carts")
+    public ResponseEntity<?> getCartMetrics() {
+        try {
+            Map<String, Object> carts = new LinkedHashMap<>();
+            carts.put("store", cartStore.stats());
+            carts.put("expiredPurge", expiredCartPurger.stats());
+            carts.put("stockReconciliation", cartStockReconciler.stats());
+
+            return ResponseEntity.ok(new ApiResponse("Cart metrics retrieved successfully", carts));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get cart metrics: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<?> getOrderMetrics() {
+        try {
+            Map<String, Object> orders = new LinkedHashMap<>();
+            orders.put("outbox", orderOutbox.stats());
+
+            return ResponseEntity.ok(new ApiResponse("Order metrics retrieved successfully", orders));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get order metrics: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> getSearchMetrics() {
+        try {
+            Map<String, Object> search = new LinkedHashMap<>();
+            search.put("productIndex", productSearchService.stats());
+            search.put("queryAnalytics", searchAnalytics.stats());
+
+            return ResponseEntity.ok(new ApiResponse("Search metrics retrieved successfully", search));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse("Failed to get search metrics: " + e.getMessage(), null));
+        }
+    }
+
+    private static Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size);
+        metrics.put("hitCount", stats.hitCount());
+        metrics.put("missCount", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictionCount", stats.evictionCount());
+        metrics.put("loadFailureCount", stats.loadFailureCount());
+        metrics.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return metrics;
+    }
+}
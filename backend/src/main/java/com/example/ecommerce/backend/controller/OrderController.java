@@ -2,6 +2,8 @@ package com.example.ecommerce.backend.controller;
 
 import com.example.ecommerce.backend.dto.ApiResponse;
 import com.example.ecommerce.backend.dto.CreateOrderRequest;
+import com.example.ecommerce.backend.dto.CursorPage;
+import com.example.ecommerce.backend.dto.KeysetCursor;
 import com.example.ecommerce.backend.dto.OrderResponse;
 import com.example.ecommerce.backend.dto.OrderSummaryResponse;
 import com.example.ecommerce.backend.model.Order;
@@ -10,11 +12,14 @@ import com.example.ecommerce.backend.model.PaymentStatus;
 import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.service.OrderService;
 import com.example.ecommerce.backend.service.UserService;
+import com.example.ecommerce.backend.service.impl.ApproximateCountCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -22,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -31,6 +37,7 @@ public class OrderController {
 
     private final OrderService orderService;
     private final UserService userService;
+    private final ApproximateCountCache approximateCountCache;
 
     // Customer endpoints
     @PostMapping
@@ -134,8 +141,28 @@ public class OrderController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) OrderStatus status,
-            @RequestParam(required = false) PaymentStatus paymentStatus) {
+            @RequestParam(required = false) PaymentStatus paymentStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
+            if (cursor != null) {
+                Sort sort = KeysetCursor.sort("createdAt", "desc", Set.of("createdAt"));
+                ScrollPosition position = KeysetCursor.decode(cursor, sort);
+                int pageSize = KeysetCursor.pageSize(size);
+
+                Window<Order> orders = status != null
+                        ? orderService.getOrdersByStatus(status, position, sort, pageSize)
+                        : orderService.getAllOrders(position, sort, pageSize);
+                Long total = withTotal
+                        ? approximateCountCache.get("orders|" + status, () -> status != null
+                                ? orderService.countOrdersByStatus(status)
+                                : orderService.countAllOrders())
+                        : null;
+
+                CursorPage<OrderSummaryResponse> response = CursorPage.of(orders, sort, OrderSummaryResponse::new, total);
+                return ResponseEntity.ok(new ApiResponse("Orders retrieved successfully", response));
+            }
+
             Sort sort = Sort.by("createdAt").descending();
             Pageable pageable = PageRequest.of(page, size, sort);
 
@@ -1,22 +1,35 @@
 package com.example.ecommerce.backend.controller;
 
 import com.example.ecommerce.backend.dto.ApiResponse;
+import com.example.ecommerce.backend.dto.CursorPage;
+import com.example.ecommerce.backend.dto.KeysetCursor;
+import com.example.ecommerce.backend.dto.ProductCardResponse;
 import com.example.ecommerce.backend.dto.ProductRequest;
 import com.example.ecommerce.backend.dto.ProductResponse;
 import com.example.ecommerce.backend.model.Product;
 import com.example.ecommerce.backend.service.ProductService;
+import com.example.ecommerce.backend.service.impl.ApproximateCountCache;
+import com.example.ecommerce.backend.service.impl.CatalogResponseCache;
+import com.example.ecommerce.backend.service.impl.ProductDetailCache;
+import com.example.ecommerce.backend.service.impl.ProductSortPlanner;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,6 +38,9 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductDetailCache productDetailCache;
+    private final CatalogResponseCache catalogResponseCache;
+    private final ApproximateCountCache approximateCountCache;
 
     // Public endpoints - no authentication required
     @GetMapping("/public")
@@ -32,16 +48,42 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            HttpServletRequest request,
+            HttpServletResponse httpResponse) {
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                    Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
+            boolean descending = sortDir.equalsIgnoreCase("desc");
+            if (cursor != null) {
+                // Cursor mode: seek pagination without a per-page COUNT; pass cursor= for the first page
+                Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
+                ScrollPosition position = KeysetCursor.decode(cursor, sort);
+                int pageSize = KeysetCursor.pageSize(size);
+                String cacheKey = "products|cursor|" + cursor + "|" + pageSize + "|" + sortBy + "|" +
+                        (descending ? "desc" : "asc") + "|" + withTotal;
+
+                catalogResponseCache.write(cacheKey, "Products retrieved successfully", () -> {
+                    Window<ProductCardResponse> products = productService.getActiveProducts(position, sort, pageSize);
+                    Long total = withTotal
+                            ? approximateCountCache.get("products|active", productService::countActiveProducts)
+                            : null;
+                    return CursorPage.of(products, sort, Function.identity(), total);
+                }, request, httpResponse);
+                return null;
+            }
 
-            Page<Product> products = productService.getActiveProducts(pageable);
-            Page<ProductResponse> response = products.map(ProductResponse::new);
+            String cacheKey = "products|" + page + "|" + size + "|" + sortBy + "|" + (descending ? "desc" : "asc");
 
-            return ResponseEntity.ok(new ApiResponse("Products retrieved successfully", response));
+            catalogResponseCache.write(cacheKey, "Products retrieved successfully", () -> {
+                Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
+                Pageable pageable = PageRequest.of(page, size, sort);
+
+                return productService.getActiveProducts(pageable);
+            }, request, httpResponse);
+
+            // The body (or a 304) has already been written by the cache
+            return null;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse("Failed to get products: " + e.getMessage(), null));
@@ -51,15 +93,21 @@ public class ProductController {
     @GetMapping("/public/{id}")
     public ResponseEntity<?> getPublicProduct(@PathVariable Long id) {
         try {
-            Product product = productService.getProductById(id)
+            if (productDetailCache.isEnabled()) {
+                byte[] cached = productDetailCache.getActiveProductResponse(id);
+                if (cached != null) {
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached);
+                }
+            }
+
+            ProductResponse response = productService.getProductDetail(id)
                     .orElseThrow(() -> new RuntimeException("Product not found"));
 
-            if (!product.getIsActive()) {
+            if (!response.getIsActive()) {
                 return ResponseEntity.badRequest()
                         .body(new ApiResponse("Product not available", null));
             }
 
-            ProductResponse response = new ProductResponse(product);
             return ResponseEntity.ok(new ApiResponse("Product retrieved successfully", response));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -74,8 +122,7 @@ public class ProductController {
             @RequestParam(defaultValue = "12") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> products = productService.searchProducts(q, pageable);
-            Page<ProductResponse> response = products.map(ProductResponse::new);
+            Page<ProductCardResponse> response = productService.searchProducts(q, pageable);
 
             return ResponseEntity.ok(new ApiResponse("Search completed", response));
         } catch (Exception e) {
@@ -94,8 +141,7 @@ public class ProductController {
             @RequestParam(defaultValue = "12") int size) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> products = productService.getProductsWithFilters(category, brand, minPrice, maxPrice, pageable);
-            Page<ProductResponse> response = products.map(ProductResponse::new);
+            Page<ProductCardResponse> response = productService.getProductsWithFilters(category, brand, minPrice, maxPrice, pageable);
 
             return ResponseEntity.ok(new ApiResponse("Filter applied successfully", response));
         } catch (Exception e) {
@@ -182,7 +228,6 @@ public class ProductController {
             if(request.getTitle() != null) product.setTitle(request.getTitle());
             if(request.getDescription() != null) product.setDescription(request.getDescription());
             if(request.getPrice() != null) product.setPrice(request.getPrice());
-            if(request.getQtyAvailable() != null) product.setQtyAvailable(request.getQtyAvailable());
             if(request.getCategory() != null) product.setCategory(request.getCategory());
             if(request.getBrand() != null) product.setBrand(request.getBrand());
             if(request.getImageUrl() != null) product.setImageUrl(request.getImageUrl());
@@ -191,7 +236,8 @@ public class ProductController {
             if(request.getLength() != null) product.setLength((request.getLength()));
             if(request.getWidth() != null) product.setWidth((request.getWidth()));
 
-            Product updatedProduct = productService.updateProduct(product);
+            // Stock lives in inventory; the product column is only a read model of it
+            Product updatedProduct = productService.updateProduct(product, request.getQtyAvailable());
             ProductResponse response = new ProductResponse(updatedProduct);
 
             return ResponseEntity.ok(new ApiResponse("Product updated successfully", response));
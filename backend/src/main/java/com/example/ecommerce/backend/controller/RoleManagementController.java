@@ -5,6 +5,7 @@ import com.example.ecommerce.backend.dto.RoleChangeRequest;
 import com.example.ecommerce.backend.dto.RoleChangeResponse;
 import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.model.UserRole;
+import com.example.ecommerce.backend.security.jwt.TokenRevocationRegistry;
 import com.example.ecommerce.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +25,7 @@ import java.util.Map;
 public class RoleManagementController {
 
     private final UserService userService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @PostMapping("/assign/{userId}")
     public ResponseEntity<?> assignRole(@PathVariable Long userId, @Valid @RequestBody RoleChangeRequest request) {
@@ -37,6 +39,7 @@ public class RoleManagementController {
                     .body(new ApiResponse("Role change denied: User is already a " + newRole, null));
             user.setRole(newRole);
             User updatedUser = userService.updateUser(user);
+            tokenRevocationRegistry.revokeUser(updatedUser.getEmail());
 
             return ResponseEntity.ok(new ApiResponse("Role assigned successfully",
                     new RoleChangeResponse(updatedUser.getId(), updatedUser.getName(), updatedUser.getEmail(), newRole, oldRole)
@@ -79,6 +82,7 @@ public class RoleManagementController {
             UserRole oldRole = user.getRole();
             user.setRole(UserRole.SELLER);
             User updatedUser = userService.updateUser(user);
+            tokenRevocationRegistry.revokeUser(updatedUser.getEmail());
             RoleChangeResponse response = new RoleChangeResponse(
                     updatedUser.getId(),
                     updatedUser.getName(),
@@ -113,6 +117,7 @@ public class RoleManagementController {
             UserRole oldRole = user.getRole();
             user.setRole(UserRole.SUPPORT);
             User updatedUser = userService.updateUser(user);
+            tokenRevocationRegistry.revokeUser(updatedUser.getEmail());
             RoleChangeResponse response = new RoleChangeResponse(
                     updatedUser.getId(),
                     updatedUser.getName(),
@@ -1,20 +1,36 @@
 package com.example.ecommerce.backend.controller;
 
 import com.example.ecommerce.backend.dto.ApiResponse;
-import com.example.ecommerce.backend.dto.ProductResponse;
-import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.dto.CursorPage;
+import com.example.ecommerce.backend.dto.KeysetCursor;
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.search.FacetCounts;
+import com.example.ecommerce.backend.search.ProductSearchService;
+import com.example.ecommerce.backend.search.SearchAnalytics;
+import com.example.ecommerce.backend.search.SearchFilter;
 import com.example.ecommerce.backend.service.ProductService;
+import com.example.ecommerce.backend.service.impl.ApproximateCountCache;
+import com.example.ecommerce.backend.service.impl.CatalogResponseCache;
+import com.example.ecommerce.backend.service.impl.ProductSortPlanner;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequiredArgsConstructor
@@ -23,6 +39,10 @@ import java.util.Map;
 public class SearchController {
 
     private final ProductService productService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final ProductSearchService productSearchService;
+    private final SearchAnalytics searchAnalytics;
+    private final ApproximateCountCache approximateCountCache;
 
     //TODO: Can Incorporate With public/filters in ProductController
     @GetMapping("/products")
@@ -37,22 +57,19 @@ public class SearchController {
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                    Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<Product> products;
+            Page<ProductCardResponse> response;
 
             if (q != null && !q.trim().isEmpty()) {
-                // Text search takes precedence
-                products = productService.searchProducts(q, pageable);
+                // Text search is ranked by relevance, with the filters applied on top
+                response = productService.searchProducts(q, category, brand, minPrice, maxPrice, pageable);
             } else {
                 // Apply filters
-                products = productService.getProductsWithFilters(category, brand, minPrice, maxPrice, pageable);
+                response = productService.getProductsWithFilters(category, brand, minPrice, maxPrice, pageable);
             }
 
-            Page<ProductResponse> response = products.map(ProductResponse::new);
-
             // Add search metadata
             Map<String, Object> searchResult = Map.of(
                     "results", response,
@@ -73,7 +90,6 @@ public class SearchController {
         }
     }
 
-    //TODO: Incomplete, Complete Before Deployment
     @GetMapping("/suggestions")
     public ResponseEntity<?> getSearchSuggestions(@RequestParam String q) {
         try {
@@ -82,26 +98,22 @@ public class SearchController {
                         .body(new ApiResponse("Query too short", List.of()));
             }
 
-            // In real implementation, this would:
-            // 1. Search in product titles/descriptions
-            // 2. Use cached popular searches
-            // 3. Include category suggestions
-            // 4. Use elasticsearch or similar for better performance
-
-            List<String> suggestions = List.of(
-                            q + " laptop",
-                            q + " phone",
-                            q + " accessories",
-                            q + " headphones",
-                            q + " deals"
-                    ).stream()
-                    .filter(suggestion -> !suggestion.equals(q))
-                    .limit(5)
-                    .toList();
+            // Popular related queries from recent search traffic, topped up from the catalog
+            List<String> suggestions = new ArrayList<>(searchAnalytics.relatedQueries(q, 5));
+            if (suggestions.size() < 5 && productSearchService.isReady()) {
+                for (String completion : productSearchService.autocomplete(q, 5)) {
+                    String suggestion = completion.toLowerCase(Locale.ROOT);
+                    if (suggestions.size() < 5 && !suggestions.contains(suggestion)) {
+                        suggestions.add(suggestion);
+                    }
+                }
+            }
+            String didYouMean = searchAnalytics.didYouMean(q);
 
             Map<String, Object> result = Map.of(
                     "query", q,
                     "suggestions", suggestions,
+                    "didYouMean", didYouMean != null ? didYouMean : "",
                     "count", suggestions.size()
             );
 
@@ -112,25 +124,15 @@ public class SearchController {
         }
     }
 
-    //TODO: Incomplete, Complete Before Deployment
     @GetMapping("/autocomplete")
     public ResponseEntity<?> getAutocomplete(@RequestParam String q) {
         try {
-            if (q == null || q.trim().length() < 2) {
+            if (q == null || q.trim().length() < 2 || !productSearchService.isReady()) {
                 return ResponseEntity.ok(new ApiResponse("Autocomplete results", List.of()));
             }
 
-            // In real implementation, search product titles that start with query
-            List<String> autocomplete = List.of(
-                            "iPhone 14",
-                            "iPad Pro",
-                            "iMac",
-                            "AirPods Pro",
-                            "Apple Watch"
-                    ).stream()
-                    .filter(item -> item.toLowerCase().contains(q.toLowerCase()))
-                    .limit(8)
-                    .toList();
+            // Titles, brands and categories ranked by sales; answered from memory
+            List<String> autocomplete = productSearchService.autocomplete(q, 8);
 
             return ResponseEntity.ok(new ApiResponse("Autocomplete results retrieved", autocomplete));
         } catch (Exception e) {
@@ -139,32 +141,51 @@ public class SearchController {
         }
     }
 
-    //TODO: Modify It According to Use Case
     @GetMapping("/filters")
-    public ResponseEntity<?> getAvailableFilters() {
+    public ResponseEntity<?> getAvailableFilters(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
         try {
-            List<String> categories = productService.getAllActiveCategories();
-            List<String> brands = productService.getAllActiveBrands();
-
-            Map<String, Object> filters = Map.of(
-                    "categories", categories,
-                    "brands", brands,
-                    "priceRanges", List.of(
-                            Map.of("label", "Under $25", "min", 0, "max", 25),
-                            Map.of("label", "$25 - $50", "min", 25, "max", 50),
-                            Map.of("label", "$50 - $100", "min", 50, "max", 100),
-                            Map.of("label", "$100 - $250", "min", 100, "max", 250),
-                            Map.of("label", "$250 - $500", "min", 250, "max", 500),
-                            Map.of("label", "Over $500", "min", 500, "max", 999999)
-                    ),
-                    "sortOptions", List.of(
-                            Map.of("label", "Newest First", "value", "createdAt", "direction", "desc"),
-                            Map.of("label", "Price: Low to High", "value", "price", "direction", "asc"),
-                            Map.of("label", "Price: High to Low", "value", "price", "direction", "desc"),
-                            Map.of("label", "Best Selling", "value", "popularity", "direction", "desc"),
-                            Map.of("label", "Customer Rating", "value", "rating", "direction", "desc")
-                    )
-            );
+            Map<String, Object> filters = new LinkedHashMap<>();
+            if (productSearchService.isReady()) {
+                // Counts for the current query and filters, each facet ignoring its own filter
+                FacetCounts facets = productSearchService.facets(q, new SearchFilter(category, brand, minPrice, maxPrice));
+                filters.put("categories", facets.categories().stream().map(FacetCounts.Value::value).toList());
+                filters.put("brands", facets.brands().stream().map(FacetCounts.Value::value).toList());
+                filters.put("priceRanges", facets.priceRanges().stream()
+                        .map(range -> Map.of(
+                                "label", range.label(),
+                                "min", range.min(),
+                                "max", range.max() != null ? range.max() : 999999,
+                                "count", range.count()))
+                        .toList());
+                filters.put("facets", Map.of(
+                        "categories", facets.categories(),
+                        "brands", facets.brands()
+                ));
+                filters.put("totalResults", facets.totalHits());
+            } else {
+                // Index still building or disabled: plain value lists without counts
+                filters.put("categories", productService.getAllActiveCategories());
+                filters.put("brands", productService.getAllActiveBrands());
+                filters.put("priceRanges", List.of(
+                        Map.of("label", "Under $25", "min", 0, "max", 25),
+                        Map.of("label", "$25 - $50", "min", 25, "max", 50),
+                        Map.of("label", "$50 - $100", "min", 50, "max", 100),
+                        Map.of("label", "$100 - $250", "min", 100, "max", 250),
+                        Map.of("label", "$250 - $500", "min", 250, "max", 500),
+                        Map.of("label", "Over $500", "min", 500, "max", 999999)
+                ));
+            }
+            filters.put("sortOptions", List.of(
+                    Map.of("label", "Newest First", "value", "createdAt", "direction", "desc"),
+                    Map.of("label", "Price: Low to High", "value", "price", "direction", "asc"),
+                    Map.of("label", "Price: High to Low", "value", "price", "direction", "desc"),
+                    Map.of("label", "Best Selling", "value", "popularity", "direction", "desc")
+            ));
 
             return ResponseEntity.ok(new ApiResponse("Filters retrieved successfully", filters));
         } catch (Exception e) {
@@ -173,18 +194,13 @@ public class SearchController {
         }
     }
 
-    //TODO: Incomplete, Complete Before Deployment
     @GetMapping("/trending")
-    public ResponseEntity<?> getTrendingSearches() {
+    public ResponseEntity<?> getTrendingSearches(@RequestParam(defaultValue = "5") int limit) {
         try {
-            // In real implementation, this would come from search analytics
-            List<Map<String, Object>> trending = List.of(
-                    Map.of("query", "wireless headphones", "searches", 1250),
-                    Map.of("query", "smartphone", "searches", 980),
-                    Map.of("query", "laptop deals", "searches", 750),
-                    Map.of("query", "fitness tracker", "searches", 680),
-                    Map.of("query", "gaming mouse", "searches", 520)
-            );
+            // Most searched queries over the analytics window (one hour by default)
+            List<Map<String, Object>> trending = searchAnalytics.trending(Math.min(limit, 50)).stream()
+                    .map(query -> Map.<String, Object>of("query", query.query(), "searches", query.count()))
+                    .toList();
 
             return ResponseEntity.ok(new ApiResponse("Trending searches retrieved", trending));
         } catch (Exception e) {
@@ -193,19 +209,20 @@ public class SearchController {
         }
     }
 
-    //TODO: Incomplete, Complete Before Deployment
     @GetMapping("/popular")
     public ResponseEntity<?> getPopularProducts(
-            @RequestParam(defaultValue = "12") int limit) {
+            @RequestParam(defaultValue = "12") int limit,
+            HttpServletRequest request,
+            HttpServletResponse httpResponse) {
         try {
-            // In real implementation, this would be based on sales/views data
-            Pageable pageable = PageRequest.of(0, limit, Sort.by("createdAt").descending());
-            Page<Product> products = productService.getActiveProducts(pageable);
-            List<ProductResponse> response = products.getContent().stream()
-                    .map(ProductResponse::new)
-                    .toList();
-
-            return ResponseEntity.ok(new ApiResponse("Popular products retrieved", response));
+            catalogResponseCache.write("popular|" + limit, "Popular products retrieved", () -> {
+                // Materialized popularity score: an index scan, not an aggregate over order items
+                Pageable pageable = PageRequest.of(0, limit, ProductSortPlanner.plan("popularity", "desc"));
+                return productService.getActiveProducts(pageable).getContent();
+            }, request, httpResponse);
+
+            // The body (or a 304) has already been written by the cache
+            return null;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse("Failed to get popular products: " + e.getMessage(), null));
@@ -215,15 +232,17 @@ public class SearchController {
     //TODO: Incorporate Into ProductController
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentProducts(
-            @RequestParam(defaultValue = "12") int limit) {
+            @RequestParam(defaultValue = "12") int limit,
+            HttpServletRequest request,
+            HttpServletResponse httpResponse) {
         try {
-            Pageable pageable = PageRequest.of(0, limit, Sort.by("createdAt").descending());
-            Page<Product> products = productService.getRecentProducts(pageable);
-            List<ProductResponse> response = products.getContent().stream()
-                    .map(ProductResponse::new)
-                    .toList();
+            catalogResponseCache.write("recent|" + limit, "Recent products retrieved", () -> {
+                Pageable pageable = PageRequest.of(0, limit, Sort.by("createdAt").descending());
+                return productService.getRecentProducts(pageable).getContent();
+            }, request, httpResponse);
 
-            return ResponseEntity.ok(new ApiResponse("Recent products retrieved", response));
+            // The body (or a 304) has already been written by the cache
+            return null;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse("Failed to get recent products: " + e.getMessage(), null));
@@ -237,22 +256,52 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            HttpServletRequest request,
+            HttpServletResponse httpResponse) {
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                    Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
+            boolean descending = sortDir.equalsIgnoreCase("desc");
+            if (cursor != null) {
+                Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
+                ScrollPosition position = KeysetCursor.decode(cursor, sort);
+                int pageSize = KeysetCursor.pageSize(size);
+                String cacheKey = "category|cursor|" + categoryName + "|" + cursor + "|" + pageSize + "|" + sortBy + "|" +
+                        (descending ? "desc" : "asc") + "|" + withTotal;
+
+                catalogResponseCache.write(cacheKey, "Category products retrieved", () -> {
+                    Window<ProductCardResponse> products = productService.getProductsByCategory(categoryName, position, sort, pageSize);
+                    Long total = withTotal
+                            ? approximateCountCache.get("category|" + categoryName,
+                                    () -> productService.countProductsByCategory(categoryName))
+                            : null;
+                    return Map.of(
+                            "category", categoryName,
+                            "products", CursorPage.of(products, sort, Function.identity(), total)
+                    );
+                }, request, httpResponse);
+                return null;
+            }
 
-            Page<Product> products = productService.getProductsByCategory(categoryName, pageable);
-            Page<ProductResponse> response = products.map(ProductResponse::new);
+            String cacheKey = "category|" + categoryName + "|" + page + "|" + size + "|" + sortBy + "|" +
+                    (descending ? "desc" : "asc");
 
-            Map<String, Object> result = Map.of(
-                    "category", categoryName,
-                    "products", response,
-                    "totalProducts", response.getTotalElements()
-            );
+            catalogResponseCache.write(cacheKey, "Category products retrieved", () -> {
+                Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
+                Pageable pageable = PageRequest.of(page, size, sort);
+
+                Page<ProductCardResponse> response = productService.getProductsByCategory(categoryName, pageable);
 
-            return ResponseEntity.ok(new ApiResponse("Category products retrieved", result));
+                return Map.of(
+                        "category", categoryName,
+                        "products", response,
+                        "totalProducts", response.getTotalElements()
+                );
+            }, request, httpResponse);
+
+            // The body (or a 304) has already been written by the cache
+            return null;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse("Failed to get category products: " + e.getMessage(), null));
@@ -266,14 +315,29 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                    Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            if (cursor != null) {
+                Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
+                Window<ProductCardResponse> products = productService.getProductsByBrand(brandName,
+                        KeysetCursor.decode(cursor, sort), sort, KeysetCursor.pageSize(size));
+                Long total = withTotal
+                        ? approximateCountCache.get("brand|" + brandName, () -> productService.countProductsByBrand(brandName))
+                        : null;
+
+                Map<String, Object> result = Map.of(
+                        "brand", brandName,
+                        "products", CursorPage.of(products, sort, Function.identity(), total)
+                );
+                return ResponseEntity.ok(new ApiResponse("Brand products retrieved", result));
+            }
+
+            Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<Product> products = productService.getProductsByBrand(brandName, pageable);
-            Page<ProductResponse> response = products.map(ProductResponse::new);
+            Page<ProductCardResponse> response = productService.getProductsByBrand(brandName, pageable);
 
             Map<String, Object> result = Map.of(
                     "brand", brandName,
@@ -288,13 +352,13 @@ public class SearchController {
         }
     }
 
-    //TODO: Incomplete, Complete Before Deployment
     @PostMapping("/save-search")
     public ResponseEntity<?> saveSearch(
             @RequestParam String query,
             @RequestParam(required = false) String filters) {
         try {
-            // In real implementation, save search for analytics
+            searchAnalytics.recordSavedSearch(query);
+
             Map<String, Object> savedSearch = Map.of(
                     "query", query,
                     "filters", filters != null ? filters : "",
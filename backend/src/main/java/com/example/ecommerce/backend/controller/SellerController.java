@@ -9,6 +9,7 @@ import com.example.ecommerce.backend.service.OrderItemService;
 import com.example.ecommerce.backend.service.ProductService;
 import com.example.ecommerce.backend.service.UserService;
 import com.example.ecommerce.backend.service.InventoryService;
+import com.example.ecommerce.backend.service.impl.ProductSortPlanner;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -75,8 +76,7 @@ public class SellerController {
             Authentication auth) {
         try {
             // In real implementation, filter by seller's products
-            Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                    Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Sort sort = ProductSortPlanner.plan(sortBy, sortDir);
             Pageable pageable = PageRequest.of(page, size, sort);
             Page<Product> products = productService.getAllProducts(pageable);
             Page<ProductResponse> response = products.map(ProductResponse::new);
@@ -128,12 +128,11 @@ public class SellerController {
             product.setTitle(request.getTitle());
             product.setDescription(request.getDescription());
             product.setPrice(request.getPrice());
-            product.setQtyAvailable(request.getQtyAvailable());
             product.setCategory(request.getCategory());
             product.setBrand(request.getBrand());
             product.setImageUrl(request.getImageUrl());
 
-            Product updatedProduct = productService.updateProduct(product);
+            Product updatedProduct = productService.updateProduct(product, request.getQtyAvailable());
             ProductResponse response = new ProductResponse(updatedProduct);
 
             return ResponseEntity.ok(new ApiResponse("Product updated successfully", response));
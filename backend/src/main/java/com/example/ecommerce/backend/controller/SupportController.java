@@ -1,6 +1,8 @@
 package com.example.ecommerce.backend.controller;
 
 import com.example.ecommerce.backend.dto.ApiResponse;
+import com.example.ecommerce.backend.dto.CursorPage;
+import com.example.ecommerce.backend.dto.KeysetCursor;
 import com.example.ecommerce.backend.dto.OrderResponse;
 import com.example.ecommerce.backend.dto.OrderSummaryResponse;
 import com.example.ecommerce.backend.dto.UserResponse;
@@ -10,11 +12,13 @@ import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.model.UserRole;
 import com.example.ecommerce.backend.service.OrderService;
 import com.example.ecommerce.backend.service.UserService;
+import com.example.ecommerce.backend.service.impl.ApproximateCountCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -32,6 +37,7 @@ public class SupportController {
 
     private final UserService userService;
     private final OrderService orderService;
+    private final ApproximateCountCache approximateCountCache;
 
     //TODO: Incomplete, Implement Before Deployment
     @GetMapping("/dashboard")
@@ -57,8 +63,25 @@ public class SupportController {
     public ResponseEntity<?> getCustomers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
         try {
+            if (cursor != null) {
+                if (search != null && !search.trim().isEmpty()) {
+                    throw new RuntimeException("Cursor paging is not supported together with search");
+                }
+                Sort sort = KeysetCursor.sort("createdAt", "desc", Set.of("createdAt"));
+                Window<User> customers = userService.getUsersByRole(UserRole.CUSTOMER,
+                        KeysetCursor.decode(cursor, sort), sort, KeysetCursor.pageSize(size));
+                Long total = withTotal
+                        ? approximateCountCache.get("users|CUSTOMER", () -> userService.countUsersByRole(UserRole.CUSTOMER))
+                        : null;
+
+                CursorPage<UserResponse> response = CursorPage.of(customers, sort, UserResponse::new, total);
+                return ResponseEntity.ok(new ApiResponse("Customers retrieved successfully", response));
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<User> users;
 
@@ -5,6 +5,7 @@ import com.example.ecommerce.backend.dto.ChangePasswordRequest;
 import com.example.ecommerce.backend.dto.UpdateProfileRequest;
 import com.example.ecommerce.backend.dto.UserResponse;
 import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.security.jwt.TokenRevocationRegistry;
 import com.example.ecommerce.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -24,6 +25,7 @@ import jakarta.validation.Valid;
 public class UserController {
 
     private final UserService userService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     // Get current user profile
     @GetMapping("/profile")
@@ -139,6 +141,7 @@ public class UserController {
     public ResponseEntity<?> deactivateUser(@PathVariable Long userId) {
         try {
             User user = userService.deactivateUser(userId);
+            tokenRevocationRegistry.revokeUser(user.getEmail());
             UserResponse response = new UserResponse(user);
             return ResponseEntity.ok(new ApiResponse("User deactivated successfully", response));
         } catch (Exception e) {
@@ -0,0 +1,40 @@
+package com.example.ecommerce.backend.dto;
+
+import com.example.ecommerce.backend.model.CartItem;
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row of the cart view, selected by CartItemRepository.findCartView together with the
+// product and its sellable stock. Prices travel as cents so totals are plain long arithmetic.
+public record CartLineResponse(Long cartItemId, Long productId, String title, String imageUrl, Boolean active,
+                               Integer availableQuantity, Integer quantity, LocalDateTime createdAt,
+                               @JsonIgnore long unitPriceCents) {
+
+    public static CartLineResponse of(CartItem cartItem) {
+        Product product = cartItem.getProduct();
+        Inventory inventory = product.getInventory();
+        return new CartLineResponse(cartItem.getId(), product.getId(), product.getTitle(), product.getImageUrl(),
+                product.getIsActive(), inventory != null ? inventory.getAvailableForSale() : 0,
+                cartItem.getQuantity(), cartItem.getCreatedAt(), product.getPrice().movePointRight(2).longValue());
+    }
+
+    @JsonIgnore
+    public long totalCents() {
+        return unitPriceCents * quantity;
+    }
+
+    @JsonProperty
+    public BigDecimal unitPrice() {
+        return BigDecimal.valueOf(unitPriceCents, 2);
+    }
+
+    @JsonProperty
+    public BigDecimal totalPrice() {
+        return BigDecimal.valueOf(totalCents(), 2);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ecommerce.backend.dto;
+
+import java.time.LocalDateTime;
+
+// The product fields a cart line needs, cached by CartStore so cart edits skip the database
+public record CartProductView(Long id, String title, String imageUrl, Boolean active, Integer availableQuantity,
+                              long priceCents) {
+
+    public CartLineResponse line(Long cartItemId, int quantity, LocalDateTime createdAt) {
+        return new CartLineResponse(cartItemId, id, title, imageUrl, active, availableQuantity, quantity, createdAt,
+                priceCents);
+    }
+}
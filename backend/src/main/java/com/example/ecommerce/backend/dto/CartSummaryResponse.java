@@ -9,15 +9,22 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 public class CartSummaryResponse {
-    private List<CartItemResponse> items;
+    private List<CartLineResponse> items;
     private BigDecimal totalAmount;
     private Integer totalItems;
     private Integer totalQuantity;
 
-    public CartSummaryResponse(List<CartItemResponse> items, BigDecimal totalAmount, Integer totalItems) {
+    // Subtotal and quantity in one pass over the view rows, in cents
+    public CartSummaryResponse(List<CartLineResponse> items) {
+        long totalCents = 0;
+        int quantity = 0;
+        for (CartLineResponse item : items) {
+            totalCents += item.totalCents();
+            quantity += item.quantity();
+        }
         this.items = items;
-        this.totalAmount = totalAmount;
-        this.totalItems = totalItems;
-        this.totalQuantity = items.stream().mapToInt(CartItemResponse::getQuantity).sum();
+        this.totalAmount = BigDecimal.valueOf(totalCents, 2);
+        this.totalItems = items.size();
+        this.totalQuantity = quantity;
     }
-}
\ No newline at end of file
+}
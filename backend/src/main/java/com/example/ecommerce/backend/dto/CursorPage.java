@@ -0,0 +1,31 @@
+package com.example.ecommerce.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Slice-style listing page for cursor paging: no exact total, only whether another page
+// exists and the cursor to fetch it. approximateTotal is present when the client asked for it.
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private int size;
+    private Long approximateTotal;
+
+    public static <E, T> CursorPage<T> of(Window<E> window, Sort sort, Function<E, T> mapper, Long approximateTotal) {
+        List<T> content = window.getContent().stream().map(mapper).toList();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? KeysetCursor.encode(window.positionAt(window.size() - 1), sort)
+                : null;
+        return new CursorPage<>(content, nextCursor, nextCursor != null, content.size(), approximateTotal);
+    }
+}
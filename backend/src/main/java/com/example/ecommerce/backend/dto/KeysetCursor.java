@@ -0,0 +1,133 @@
+package com.example.ecommerce.backend.dto;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Opaque keyset cursors for listing endpoints. A cursor is the sort it was issued for plus
+// the sort key values of the last row returned, base64url encoded; the next page seeks past
+// those values instead of skipping rows with OFFSET, so page 5,000 costs the same as page 1.
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetCursor() {
+    }
+
+    // Sort on a whitelisted property with the id as tie-breaker, so every row has a unique
+    // position and none is skipped or repeated between pages
+    public static Sort sort(String sortBy, String sortDir, Set<String> allowed) {
+        if (!allowed.contains(sortBy)) {
+            throw new RuntimeException("Unsupported sort for cursor paging: " + sortBy + ". Allowed: " + allowed);
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    public static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // An empty cursor starts from the first row
+    public static ScrollPosition decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        String[] parts = decoded.split(";");
+        if (parts.length < 2 || !parts[0].equals(VERSION)) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        if (!parts[1].equals(signature(sort))) {
+            throw new RuntimeException("Cursor was issued for a different sort order");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 2; i < parts.length; i++) {
+            int equals = parts[i].indexOf('=');
+            if (equals < 0 || parts[i].length() < equals + 3 || parts[i].charAt(equals + 2) != ':') {
+                throw new RuntimeException("Invalid cursor");
+            }
+            String property = parts[i].substring(0, equals);
+            if (sort.getOrderFor(property) == null) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            keys.put(property, parseValue(parts[i].charAt(equals + 1), parts[i].substring(equals + 3)));
+        }
+        if (keys.size() != sort.stream().count()) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static String encode(ScrollPosition position, Sort sort) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Only keyset positions can be encoded");
+        }
+        StringBuilder builder = new StringBuilder(VERSION).append(';').append(signature(sort));
+        for (Map.Entry<String, Object> key : keyset.getKeys().entrySet()) {
+            builder.append(';').append(key.getKey()).append('=').append(formatValue(key.getValue()));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String signature(Sort sort) {
+        return sort.stream()
+                .map(order -> order.getProperty() + ":" + (order.isAscending() ? "asc" : "desc"))
+                .collect(Collectors.joining(","));
+    }
+
+    private static String formatValue(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return "t:" + dateTime;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return "d:" + decimal.toPlainString();
+        }
+        if (value instanceof Long number) {
+            return "l:" + number;
+        }
+        if (value instanceof Integer number) {
+            return "i:" + number;
+        }
+        if (value instanceof String text) {
+            return "s:" + URLEncoder.encode(text, StandardCharsets.UTF_8);
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type: " + (value == null ? "null" : value.getClass()));
+    }
+
+    private static Object parseValue(char type, String value) {
+        try {
+            return switch (type) {
+                case 't' -> LocalDateTime.parse(value);
+                case 'd' -> new BigDecimal(value);
+                case 'l' -> Long.parseLong(value);
+                case 'i' -> Integer.parseInt(value);
+                case 's' -> URLDecoder.decode(value, StandardCharsets.UTF_8);
+                default -> throw new RuntimeException("Invalid cursor");
+            };
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Catalog grid card, selected directly by ProductRepository so list pages never hydrate Product
+// entities (TEXT columns, the eagerly resolved inventory one-to-one, dirty-checking snapshots).
+// popularityScore is only selected so keyset cursors can seek on it.
+public record ProductCardResponse(Long id, String title, BigDecimal price, Integer qtyAvailable, String category,
+                                  String brand, String imageUrl, LocalDateTime createdAt,
+                                  @JsonIgnore Long popularityScore) {
+}
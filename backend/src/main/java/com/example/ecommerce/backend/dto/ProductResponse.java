@@ -1,6 +1,7 @@
 package com.example.ecommerce.backend.dto;
 
 import com.example.ecommerce.backend.model.Product;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 // Product Response DTOs
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
 public class ProductResponse {
     private Long id;
     private String title;
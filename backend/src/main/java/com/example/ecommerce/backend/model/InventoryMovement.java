@@ -0,0 +1,43 @@
+package com.example.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+// Append-only stock journal. Rows are inserted in batches by InventoryJournal and never
+// updated; a product's balance is its InventorySnapshot plus the deltas after it.
+// No foreign key on product_id so the audit trail outlives deleted products.
+@Data
+@Entity
+@Table(name = "inventory_movements",
+        indexes = {
+                @Index(name = "idx_movement_product", columnList = "product_id, id"),
+                @Index(name = "idx_movement_created", columnList = "created_at")
+        }
+)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class InventoryMovement {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private InventoryMovementType type;
+
+    @Column(name = "available_delta", nullable = false)
+    private Integer availableDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private Integer reservedDelta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce.backend.model;
+
+public enum InventoryMovementType {
+    ADD,
+    REDUCE,
+    ADJUST,
+    RESERVE,
+    RELEASE
+}
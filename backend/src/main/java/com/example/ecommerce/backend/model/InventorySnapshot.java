@@ -0,0 +1,32 @@
+package com.example.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+// Compacted stock balance of one product as of journal entry lastMovementId
+@Data
+@Entity
+@Table(name = "inventory_snapshots")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class InventorySnapshot {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "qty_available", nullable = false)
+    private Integer qtyAvailable;
+
+    @Column(name = "qty_reserved", nullable = false)
+    private Integer qtyReserved;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
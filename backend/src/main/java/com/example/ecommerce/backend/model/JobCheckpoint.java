@@ -0,0 +1,36 @@
+package com.example.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Progress and lease of a background job shared by all nodes. Only the lease owner may move
+// the position on; a node that dies simply lets its lease run out.
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(nullable = false)
+    private Long position = 0L;
+
+    @Column(length = 64)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public JobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+}
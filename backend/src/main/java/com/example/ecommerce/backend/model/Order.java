@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -22,6 +23,7 @@ import java.util.List;
                 @Index(name = "idx_order_user", columnList = "user_id"),
                 @Index(name = "idx_order_status", columnList = "status"),
                 @Index(name = "idx_order_created", columnList = "created_at"),
+                @Index(name = "idx_order_status_created", columnList = "status, created_at"),
                 @Index(name = "idx_order_number", columnList = "order_number", unique = true)
         }
 )
@@ -85,6 +87,8 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Summary listings only need item counts; initialize a whole page of collections in one IN query
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -0,0 +1,63 @@
+package com.example.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One pending side effect of a placed order. Rows are inserted in the order's own transaction,
+// so a committed order always has its follow-up work recorded. available_at doubles as the
+// claim: a worker pushes it forward before running the task, and a failed task is retried
+// once it passes again.
+@Data
+@Entity
+@Table(name = "order_outbox",
+        indexes = {
+                @Index(name = "idx_outbox_due", columnList = "processed_at, available_at"),
+                @Index(name = "idx_outbox_order", columnList = "order_id")
+        }
+)
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class OrderOutboxEvent {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderOutboxTask task;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public OrderOutboxEvent(Order order, OrderOutboxTask task, LocalDateTime now) {
+        this.orderId = order.getId();
+        this.userId = order.getUser().getId();
+        this.task = task;
+        this.availableAt = now;
+        this.createdAt = now;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce.backend.model;
+
+// Side effects of placing an order, run after the order commits. The cart lines are removed
+// in the order transaction itself, see CartService.removeCheckedOutItems.
+public enum OrderOutboxTask {
+    CONFIRMATION_EMAIL,
+    NEW_ORDER_ALERT,
+    SALES_COUNTERS
+}
@@ -25,6 +25,10 @@ import java.util.List;
                 @Index(name = "idx_product_price", columnList = "price"),
                 @Index(name = "idx_product_active", columnList = "is_active"),
                 @Index(name = "idx_product_created", columnList = "created_at"),
+                // Seek paging over active products; InnoDB appends the id to secondary indexes
+                @Index(name = "idx_product_active_created", columnList = "is_active, created_at"),
+                @Index(name = "idx_product_active_price", columnList = "is_active, price"),
+                @Index(name = "idx_product_active_popularity", columnList = "is_active, popularity_score"),
                 @Index(name = "idx_product_sku", columnList = "sku", unique = true)
         }
 )
@@ -49,8 +53,10 @@ public class Product {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
 
+    // Read model of inventory.qty_available: written once on insert, then refreshed in bulk by
+    // ProductStockProjector and StockReconciler. Stock changes go to Inventory only.
     @Min(value = 0, message = "Quantity cannot be negative")
-    @Column(name = "qty_available", nullable = false)
+    @Column(name = "qty_available", nullable = false, updatable = false)
     private Integer qtyAvailable = 0;
 
     @Column(name = "image_url", columnDefinition = "TEXT")
@@ -94,6 +100,12 @@ public class Product {
     @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT TRUE")
     private Boolean isActive = true;
 
+    // Materialized "Best Selling" rank from delivered sales and cart adds. Maintained in bulk
+    // by PopularityScoreRefresher; never written through the entity.
+    @Column(name = "popularity_score", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long popularityScore = 0L;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
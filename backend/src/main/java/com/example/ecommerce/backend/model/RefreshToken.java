@@ -7,7 +7,11 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "ux_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "ux_refresh_tokens_user_id", columnList = "user_id", unique = true),
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date")
+})
 @Data
 @NoArgsConstructor
 public class RefreshToken {
@@ -15,19 +19,25 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
-    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    // One row per user; RefreshTokenRepository.upsertForUser relies on the unique user_id
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String accessToken;
+    // Hex SHA-256 of the token handed to the client; the raw token is never stored
+    @Column(name = "token_hash", nullable = false, columnDefinition = "CHAR(64)")
+    private String tokenHash;
 
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 
-    public RefreshToken(User user, String token, Instant expiryDate) {
+    public RefreshToken(User user, String tokenHash, Instant expiryDate) {
         this.user = user;
-        this.accessToken = token;
+        this.tokenHash = tokenHash;
         this.expiryDate = expiryDate;
     }
-}
\ No newline at end of file
+
+    public boolean isExpired(Instant now) {
+        return expiryDate.isBefore(now);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Running sales counters per order day, written by the SALES_COUNTERS outbox task in the same
+// transaction that marks the task done, so each order is counted exactly once
+@Data
+@Entity
+@Table(name = "sales_totals")
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class SalesTotal {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "sales_day")
+    private LocalDate salesDay;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "unit_count", nullable = false)
+    private Long unitCount = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    public SalesTotal(LocalDate salesDay) {
+        this.salesDay = salesDay;
+    }
+}
@@ -21,6 +21,7 @@ import java.util.List;
         indexes = {
                 @Index(name = "idx_user_email", columnList = "email", unique = true),
                 @Index(name = "idx_user_role", columnList = "role"),
+                @Index(name = "idx_user_role_created", columnList = "role, created_at"),
                 @Index(name = "idx_user_active", columnList = "is_active"),
                 @Index(name = "idx_user_created", columnList = "created_at")
         }
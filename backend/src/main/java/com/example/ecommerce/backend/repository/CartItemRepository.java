@@ -1,5 +1,6 @@
 package com.example.ecommerce.backend.repository;
 
+import com.example.ecommerce.backend.dto.CartLineResponse;
 import com.example.ecommerce.backend.model.CartItem;
 import com.example.ecommerce.backend.model.Product;
 import com.example.ecommerce.backend.model.User;
@@ -8,8 +9,10 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,9 +33,21 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     boolean existsByUserIdAndProductId(Long userId, Long productId);
 
     // Cart management
-    @Query("SELECT ci FROM CartItem ci WHERE ci.user.id = :userId ORDER BY ci.createdAt DESC")
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product WHERE ci.user.id = :userId ORDER BY ci.createdAt DESC")
     List<CartItem> findCartItemsByUserIdOrderByCreatedAt(@Param("userId") Long userId);
 
+    // Whole cart page in one statement: items, product fields and sellable stock, price in cents
+    @Query("SELECT new com.example.ecommerce.backend.dto.CartLineResponse(" +
+            "ci.id, p.id, p.title, p.imageUrl, p.isActive, COALESCE(i.qtyAvailable - i.qtyReserved, 0), " +
+            "ci.quantity, ci.createdAt, CAST(p.price * 100 AS Long)) " +
+            "FROM CartItem ci JOIN ci.product p LEFT JOIN p.inventory i " +
+            "WHERE ci.user.id = :userId ORDER BY ci.createdAt DESC")
+    List<CartLineResponse> findCartView(@Param("userId") Long userId);
+
+    // CartStore hydration: [productId, quantity, createdAt] per line
+    @Query("SELECT ci.product.id, ci.quantity, ci.createdAt FROM CartItem ci WHERE ci.user.id = :userId ORDER BY ci.createdAt")
+    List<Object[]> findLinesByUserId(@Param("userId") Long userId);
+
     @Query("SELECT COUNT(ci) FROM CartItem ci WHERE ci.user.id = :userId")
     Long countCartItemsByUserId(@Param("userId") Long userId);
 
@@ -55,6 +70,26 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("DELETE FROM CartItem ci WHERE ci.user.id = :userId AND ci.product.id = :productId")
     int removeItemFromCart(@Param("userId") Long userId, @Param("productId") Long productId);
 
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stock reconciliation: every cart holding the products at once, judged on the product and
+    // inventory rows as they are when the statement runs
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.product.id IN :productIds AND ci.product.id IN (" +
+            "SELECT p.id FROM Product p LEFT JOIN p.inventory i " +
+            "WHERE p.isActive = false OR i IS NULL OR i.qtyAvailable - i.qtyReserved <= 0)")
+    int deleteUnavailableByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.quantity = (" +
+            "SELECT i.qtyAvailable - i.qtyReserved FROM Inventory i WHERE i.product.id = ci.product.id) " +
+            "WHERE ci.product.id IN :productIds AND ci.quantity > (" +
+            "SELECT i.qtyAvailable - i.qtyReserved FROM Inventory i WHERE i.product.id = ci.product.id) AND (" +
+            "SELECT i.qtyAvailable - i.qtyReserved FROM Inventory i WHERE i.product.id = ci.product.id) > 0")
+    int capQuantityToStockByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
     @Modifying
     @Query("UPDATE CartItem ci SET ci.quantity = :quantity WHERE ci.user.id = :userId AND ci.product.id = :productId")
     int updateCartItemQuantity(
@@ -71,6 +106,20 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("DELETE FROM CartItem ci WHERE ci.createdAt < :cutoffDate")
     int deleteOldCartItems(@Param("cutoffDate") LocalDateTime cutoffDate);
 
+    // Bounds of the expired range for ExpiredCartPurger; both use idx_cart_created
+    @Query("SELECT MIN(ci.id) FROM CartItem ci WHERE ci.createdAt < :cutoffDate")
+    Long findFirstExpiredId(@Param("cutoffDate") LocalDateTime cutoffDate);
+
+    @Query("SELECT MAX(ci.id) FROM CartItem ci WHERE ci.createdAt < :cutoffDate")
+    Long findLastExpiredId(@Param("cutoffDate") LocalDateTime cutoffDate);
+
+    // One chunk of the purge: a primary key range scan, so locks never reach past toId
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.id >= :fromId AND ci.id < :toId AND ci.createdAt < :cutoffDate")
+    int deleteExpiredInRange(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                             @Param("cutoffDate") LocalDateTime cutoffDate);
+
     // Analytics
     @Query("SELECT ci.product.id, COUNT(ci) FROM CartItem ci GROUP BY ci.product.id ORDER BY COUNT(ci) DESC")
     List<Object[]> findMostAddedToCartProducts();
@@ -0,0 +1,45 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.model.InventoryMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Journal rows are appended by InventoryJournal with batched JDBC inserts; this repository only reads and prunes
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, Long> {
+
+    Page<InventoryMovement> findByProductIdOrderByIdDesc(Long productId, Pageable pageable);
+
+    @Query("SELECT MAX(m.id) FROM InventoryMovement m")
+    Long findLastMovementId();
+
+    // Highest id among entries old enough that every transaction that wrote below it has finished
+    @Query("SELECT MAX(m.id) FROM InventoryMovement m WHERE m.createdAt <= :settledBefore")
+    Long findSettledMovementId(@Param("settledBefore") LocalDateTime settledBefore);
+
+    // Per product: deltas after its snapshot (or from the start) up to and including upTo
+    @Query("SELECT m.productId, SUM(m.availableDelta), SUM(m.reservedDelta) FROM InventoryMovement m " +
+            "WHERE m.id <= :upTo AND m.id > COALESCE(" +
+            "(SELECT s.lastMovementId FROM InventorySnapshot s WHERE s.productId = m.productId), 0) " +
+            "GROUP BY m.productId")
+    List<Object[]> sumDeltasAfterSnapshots(@Param("upTo") Long upTo);
+
+    @Query("SELECT m.productId, SUM(m.availableDelta), SUM(m.reservedDelta) FROM InventoryMovement m " +
+            "WHERE m.productId IN :productIds AND m.id > COALESCE(" +
+            "(SELECT s.lastMovementId FROM InventorySnapshot s WHERE s.productId = m.productId), 0) " +
+            "GROUP BY m.productId")
+    List<Object[]> sumDeltasAfterSnapshotsFor(@Param("productIds") Collection<Long> productIds);
+
+    // Entries already folded into their product's snapshot and past the audit retention
+    @Query("SELECT m.id FROM InventoryMovement m WHERE m.createdAt < :before AND m.id <= " +
+            "(SELECT s.lastMovementId FROM InventorySnapshot s WHERE s.productId = m.productId) ORDER BY m.id")
+    List<Long> findCompactedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -2,15 +2,22 @@ package com.example.ecommerce.backend.repository;
 
 import com.example.ecommerce.backend.model.Inventory;
 import com.example.ecommerce.backend.model.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,8 +29,16 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     Optional<Inventory> findByProductId(Long productId);
 
+    // Keyset (cursor) paging
+    Window<Inventory> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
     boolean existsByProductId(Long productId);
 
+    // Row locks are taken in product-id order so concurrent checkouts cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds ORDER BY i.product.id")
+    List<Inventory> findAndLockByProductIds(@Param("productIds") Collection<Long> productIds);
+
     // Stock level queries
     @Query("SELECT i FROM Inventory i WHERE i.qtyAvailable <= i.reorderLevel")
     List<Inventory> findLowStockItems();
@@ -76,14 +91,19 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Query("UPDATE Inventory i SET i.qtyAvailable = i.qtyAvailable - :quantity, i.updatedAt = CURRENT_TIMESTAMP WHERE i.product.id = :productId AND i.qtyAvailable >= :quantity")
     int reduceStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
-    @Modifying
-    @Query("UPDATE Inventory i SET i.qtyReserved = i.qtyReserved + :quantity, i.updatedAt = CURRENT_TIMESTAMP WHERE i.product.id = :productId")
+    // Guarded reservation: returns 0 when the row does not have enough unreserved stock
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.qtyReserved = i.qtyReserved + :quantity, i.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE i.product.id = :productId AND (i.qtyAvailable - i.qtyReserved) >= :quantity")
     int reserveStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
-    @Modifying
+    @Modifying(flushAutomatically = true)
     @Query("UPDATE Inventory i SET i.qtyReserved = i.qtyReserved - :quantity, i.updatedAt = CURRENT_TIMESTAMP WHERE i.product.id = :productId AND i.qtyReserved >= :quantity")
     int releaseReservedStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
+    @Query("SELECT i.product.id, i.qtyAvailable, i.qtyReserved FROM Inventory i ORDER BY i.id")
+    List<Object[]> findBalances(Pageable pageable);
+
     @Modifying
     @Query("UPDATE Inventory i SET i.reorderLevel = :reorderLevel WHERE i.product.id = :productId")
     int updateReorderLevel(@Param("productId") Long productId, @Param("reorderLevel") Integer reorderLevel);
@@ -0,0 +1,9 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.model.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+}
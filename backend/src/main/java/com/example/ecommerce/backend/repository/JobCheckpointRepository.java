@@ -0,0 +1,36 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    // Takes the lease when it is free, expired or already ours; returns 0 when another node holds it
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobCheckpoint j SET j.owner = :owner, j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "WHERE j.jobName = :jobName AND (j.owner IS NULL OR j.owner = :owner OR j.leaseUntil < :now)")
+    int acquireLease(@Param("jobName") String jobName, @Param("owner") String owner,
+                     @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Records progress and renews the lease; returns 0 once the lease has been taken over
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobCheckpoint j SET j.position = :position, j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "WHERE j.jobName = :jobName AND j.owner = :owner")
+    int advance(@Param("jobName") String jobName, @Param("owner") String owner, @Param("position") Long position,
+                @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobCheckpoint j SET j.owner = NULL, j.leaseUntil = NULL WHERE j.jobName = :jobName AND j.owner = :owner")
+    int releaseLease(@Param("jobName") String jobName, @Param("owner") String owner);
+}
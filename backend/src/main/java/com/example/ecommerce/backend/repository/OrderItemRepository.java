@@ -44,6 +44,9 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     @Query("SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.product.id = :productId AND oi.order.status = 'DELIVERED'")
     Long getTotalQuantitySoldByProductId(@Param("productId") Long productId);
 
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.status = 'DELIVERED' GROUP BY oi.product.id")
+    List<Object[]> sumDeliveredQuantityByProduct();
+
     @Query("SELECT SUM(oi.totalPrice) FROM OrderItem oi WHERE oi.product.id = :productId AND oi.order.status = 'DELIVERED'")
     BigDecimal getTotalRevenueByProductId(@Param("productId") Long productId);
 
@@ -0,0 +1,45 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.model.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    @Query("SELECT e.id FROM OrderOutboxEvent e WHERE e.processedAt IS NULL AND e.availableAt <= :now ORDER BY e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Returns 0 when the event is done, or another worker claimed it first
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.availableAt = :claimedUntil, e.attempts = e.attempts + 1 " +
+            "WHERE e.id = :id AND e.processedAt IS NULL AND e.availableAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    // Joins the task's transaction; returns 0 when another worker already marked it
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.processedAt = :now, e.lastError = NULL WHERE e.id = :id AND e.processedAt IS NULL")
+    int markProcessed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.availableAt = :retryAt, e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("retryAt") LocalDateTime retryAt, @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+
+    long countByProcessedAtIsNull();
+}
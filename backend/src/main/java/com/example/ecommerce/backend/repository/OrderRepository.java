@@ -4,8 +4,13 @@ import com.example.ecommerce.backend.model.Order;
 import com.example.ecommerce.backend.model.OrderStatus;
 import com.example.ecommerce.backend.model.PaymentStatus;
 import com.example.ecommerce.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -20,22 +25,40 @@ import java.util.Optional;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    // Basic queries
+    // Fetch plans: listings render OrderSummaryResponse (order + customer, item counts are batch loaded),
+    // detail views render OrderResponse (customer, items and their products in one statement)
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product", "orderItems.product.inventory"})
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product", "orderItems.product.inventory"})
+    Optional<Order> findWithDetailsById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Order> findAll(Pageable pageable);
+
     boolean existsByOrderNumber(String orderNumber);
 
     List<Order> findByUser(User user);
 
     List<Order> findByUserId(Long userId);
 
+    @EntityGraph(attributePaths = "user")
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
     // Status-based queries
     List<Order> findByStatus(OrderStatus status);
 
+    @EntityGraph(attributePaths = "user")
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
+    // Keyset (cursor) paging
+    @EntityGraph(attributePaths = "user")
+    Window<Order> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    Window<Order> findByStatus(OrderStatus status, ScrollPosition position, Sort sort, Limit limit);
+
     List<Order> findByPaymentStatus(PaymentStatus paymentStatus);
 
     Page<Order> findByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable);
@@ -48,6 +71,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findUserOrdersOrderByCreatedAt(@Param("userId") Long userId, Pageable pageable);
 
     // Date range queries
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
     List<Order> findOrdersBetweenDates(
             @Param("startDate") LocalDateTime startDate,
@@ -104,6 +128,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     int updatePaymentStatus(@Param("orderId") Long orderId, @Param("paymentStatus") PaymentStatus paymentStatus);
 
     // Search functionality
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT o FROM Order o WHERE " +
             "o.orderNumber LIKE %:searchTerm% OR " +
             "LOWER(o.user.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -111,6 +136,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> searchOrders(@Param("searchTerm") String searchTerm, Pageable pageable);
 
     // Complex filters
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT o FROM Order o WHERE " +
             "(:userId IS NULL OR o.user.id = :userId) AND " +
             "(:status IS NULL OR o.status = :status) AND " +
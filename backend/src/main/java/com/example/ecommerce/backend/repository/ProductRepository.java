@@ -1,17 +1,26 @@
 package com.example.ecommerce.backend.repository;
 
+import com.example.ecommerce.backend.dto.CartProductView;
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.dto.ProductResponse;
 import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.search.ProductDocument;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +45,17 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Page<Product> findByBrand(String brand, Pageable pageable);
 
+    // Keyset (cursor) paging: seeks past the last row's sort key instead of counting and skipping
+    Window<ProductCardResponse> findCardsByIsActive(Boolean isActive, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ProductCardResponse> findCardsByCategory(String category, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ProductCardResponse> findCardsByBrand(String brand, ScrollPosition position, Sort sort, Limit limit);
+
+    long countByCategory(String category);
+
+    long countByBrand(String brand);
+
     Page<Product> findByTitleContainingIgnoreCase(String title, Pageable pageable);
 
     // Price range queries
@@ -65,22 +85,75 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.isActive = true ORDER BY p.brand")
     List<String> findAllActiveBrands();
 
-    // Search functionality
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND (" +
+    // Search index feed: keyset batches of active products, searchable columns only
+    @Query("SELECT new com.example.ecommerce.backend.search.ProductDocument(" +
+            "p.id, p.title, p.description, p.category, p.brand, p.price) " +
+            "FROM Product p WHERE p.isActive = true AND p.id > :lastId ORDER BY p.id")
+    List<ProductDocument> findActiveDocumentsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT new com.example.ecommerce.backend.search.ProductDocument(" +
+            "p.id, p.title, p.description, p.category, p.brand, p.price) " +
+            "FROM Product p WHERE p.isActive = true AND p.id = :productId")
+    Optional<ProductDocument> findActiveDocumentById(@Param("productId") Long productId);
+
+    // Read-only catalog views: constructor projections, no managed entities
+    String CARD = "new com.example.ecommerce.backend.dto.ProductCardResponse(" +
+            "p.id, p.title, p.price, p.qtyAvailable, p.category, p.brand, p.imageUrl, p.createdAt, p.popularityScore)";
+
+    @Query(value = "SELECT " + CARD + " FROM Product p WHERE p.isActive = :isActive",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = :isActive")
+    Page<ProductCardResponse> findCardsByIsActive(@Param("isActive") Boolean isActive, Pageable pageable);
+
+    @Query(value = "SELECT " + CARD + " FROM Product p WHERE p.category = :category",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category = :category")
+    Page<ProductCardResponse> findCardsByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query(value = "SELECT " + CARD + " FROM Product p WHERE p.brand = :brand",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.brand = :brand")
+    Page<ProductCardResponse> findCardsByBrand(@Param("brand") String brand, Pageable pageable);
+
+    @Query("SELECT " + CARD + " FROM Product p WHERE p.id IN :productIds")
+    List<ProductCardResponse> findCardsByIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Fallback while the search index is unavailable; filters match the index's, case-insensitive
+    @Query(value = "SELECT " + CARD + " FROM Product p WHERE p.isActive = true AND (" +
             "LOWER(p.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(p.category) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(p.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    Page<Product> searchActiveProducts(@Param("searchTerm") String searchTerm, Pageable pageable);
-
-    // Complex filters
-    @Query("SELECT p FROM Product p WHERE " +
+            "LOWER(p.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+            "(:category IS NULL OR LOWER(p.category) = LOWER(:category)) AND " +
+            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice)",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND (" +
+            "LOWER(p.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(p.category) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(p.brand) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
+            "(:category IS NULL OR LOWER(p.category) = LOWER(:category)) AND " +
+            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand)) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice)")
+    Page<ProductCardResponse> searchActiveProductCards(@Param("searchTerm") String searchTerm,
+                                                       @Param("category") String category,
+                                                       @Param("brand") String brand,
+                                                       @Param("minPrice") BigDecimal minPrice,
+                                                       @Param("maxPrice") BigDecimal maxPrice,
+                                                       Pageable pageable);
+
+    @Query(value = "SELECT " + CARD + " FROM Product p WHERE " +
+            "(:category IS NULL OR p.category = :category) AND " +
+            "(:brand IS NULL OR p.brand = :brand) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+            "p.isActive = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " +
             "(:category IS NULL OR p.category = :category) AND " +
             "(:brand IS NULL OR p.brand = :brand) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
             "p.isActive = true")
-    Page<Product> findProductsWithFilters(
+    Page<ProductCardResponse> findProductCardsWithFilters(
             @Param("category") String category,
             @Param("brand") String brand,
             @Param("minPrice") BigDecimal minPrice,
@@ -88,6 +161,22 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             Pageable pageable
     );
 
+    @Query(value = "SELECT " + CARD + " FROM Product p WHERE p.isActive = true ORDER BY p.createdAt DESC",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    Page<ProductCardResponse> findRecentProductCards(Pageable pageable);
+
+    // Detail view: every ProductResponse column, without the inventory and collection associations
+    @Query("SELECT new com.example.ecommerce.backend.dto.ProductResponse(" +
+            "p.id, p.title, p.description, p.price, p.qtyAvailable, p.category, p.brand, p.imageUrl, p.sku, " +
+            "p.height, p.weight, p.length, p.width, p.isActive, p.createdAt, p.updatedAt) " +
+            "FROM Product p WHERE p.id = :productId")
+    Optional<ProductResponse> findResponseById(@Param("productId") Long productId);
+
+    @Query("SELECT new com.example.ecommerce.backend.dto.CartProductView(" +
+            "p.id, p.title, p.imageUrl, p.isActive, COALESCE(i.qtyAvailable - i.qtyReserved, 0), " +
+            "CAST(p.price * 100 AS Long)) FROM Product p LEFT JOIN p.inventory i WHERE p.id IN :ids")
+    List<CartProductView> findCartViewsByIdIn(@Param("ids") Collection<Long> ids);
+
     // Statistics
     @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
     Long countActiveProducts();
@@ -95,22 +184,36 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT AVG(p.price) FROM Product p WHERE p.isActive = true")
     BigDecimal getAveragePrice();
 
-    // Recent products
-    @Query("SELECT p FROM Product p WHERE p.isActive = true ORDER BY p.createdAt DESC")
-    Page<Product> findRecentProducts(Pageable pageable);
-
     @Query("SELECT p FROM Product p WHERE p.createdAt >= :since AND p.isActive = true")
     List<Product> findProductsCreatedSince(@Param("since") LocalDateTime since);
 
     // Update operations
+    // Stock read model: copy inventory.qty_available onto the given products where it differs
+    @Transactional
     @Modifying
-    @Query("UPDATE Product p SET p.qtyAvailable = :quantity WHERE p.id = :productId")
-    int updateStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
+    @Query("UPDATE Product p SET p.qtyAvailable = " +
+            "(SELECT i.qtyAvailable FROM Inventory i WHERE i.product.id = p.id) " +
+            "WHERE p.id IN :productIds AND EXISTS " +
+            "(SELECT i.id FROM Inventory i WHERE i.product.id = p.id AND i.qtyAvailable <> p.qtyAvailable)")
+    int refreshQtyAvailable(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT p.id FROM Product p JOIN p.inventory i " +
+            "WHERE p.id > :lastId AND p.qtyAvailable <> i.qtyAvailable ORDER BY p.id")
+    List<Long> findStockDriftAfter(@Param("lastId") Long lastId, Pageable pageable);
 
     @Modifying
     @Query("UPDATE Product p SET p.isActive = false WHERE p.id = :productId")
     int deactivateProduct(@Param("productId") Long productId);
 
+    // Popularity is only ever written in bulk by PopularityScoreRefresher
+    @Query("SELECT p.id, p.popularityScore FROM Product p WHERE p.popularityScore <> 0")
+    List<Object[]> findNonZeroPopularityScores();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.popularityScore = :score WHERE p.id IN :productIds")
+    int updatePopularityScore(@Param("score") long score, @Param("productIds") Collection<Long> productIds);
+
     @Query("SELECT p.imageUrl FROM Product p WHERE p.id = :productId")
     String getImageUrlByProductId(Long productId);
 }
\ No newline at end of file
@@ -1,19 +1,39 @@
 package com.example.ecommerce.backend.repository;
 
 import com.example.ecommerce.backend.model.RefreshToken;
-import com.example.ecommerce.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+
+    // The user is joined in so the refresh endpoint needs a single statement
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    // Inserts or rotates the user's token in one statement, keyed on the unique user_id
+    @Modifying
+    @Query(value = "INSERT INTO refresh_tokens (user_id, token_hash, expiry_date) " +
+            "VALUES (:userId, :tokenHash, :expiryDate) " +
+            "ON DUPLICATE KEY UPDATE token_hash = VALUES(token_hash), expiry_date = VALUES(expiry_date)",
+            nativeQuery = true)
+    int upsertForUser(@Param("userId") Long userId,
+                      @Param("tokenHash") String tokenHash,
+                      @Param("expiryDate") Instant expiryDate);
 
     @Modifying
-    int deleteByUser(User user);
+    @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 
-    Optional<RefreshToken> findByUser(User user);
-}
\ No newline at end of file
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expiry_date < :now LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,29 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.model.SalesTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesTotalRepository extends JpaRepository<SalesTotal, LocalDate> {
+
+    // Returns 0 when the day has no row yet
+    @Transactional
+    @Modifying
+    @Query("UPDATE SalesTotal t SET t.orderCount = t.orderCount + 1, t.unitCount = t.unitCount + :units, " +
+            "t.revenue = t.revenue + :revenue WHERE t.salesDay = :day")
+    int addSale(@Param("day") LocalDate day, @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    // One row: [orders, units, revenue] over all days
+    @Query("SELECT COALESCE(SUM(t.orderCount), 0), COALESCE(SUM(t.unitCount), 0), COALESCE(SUM(t.revenue), 0) " +
+            "FROM SalesTotal t")
+    List<Object[]> sumAll();
+}
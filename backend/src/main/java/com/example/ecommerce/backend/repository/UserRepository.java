@@ -2,11 +2,18 @@ package com.example.ecommerce.backend.repository;
 
 import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.model.UserRole;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -22,6 +29,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    // The email as stored, without flushing pending changes to the user first
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT u.email FROM User u WHERE u.id = :id")
+    Optional<String> findStoredEmailById(@Param("id") Long id);
+
     List<User> findByRole(UserRole role);
 
     List<User> findByIsActive(Boolean isActive);
@@ -29,6 +41,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Pagination queries
     Page<User> findByRole(UserRole role, Pageable pageable);
 
+    // Keyset (cursor) paging
+    Window<User> findByRole(UserRole role, ScrollPosition position, Sort sort, Limit limit);
+
+    long countByRole(UserRole role);
+
     Page<User> findByIsActive(Boolean isActive, Pageable pageable);
 
     Page<User> findByNameContainingIgnoreCase(String name, Pageable pageable);
@@ -0,0 +1,149 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Completions for product titles, brands and categories. A title is weighted by units sold
+// (plus one so unsold products still appear); a brand or category by the summed weight of
+// its active products, so "app" ranks the Apple brand above any single Apple product.
+// Titles can also be completed from their second and third word ("phone" finds
+// "Wireless Phone Charger").
+public class AutocompleteIndex {
+
+    private static final int MAX_WORD_STARTS = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TopKTrie trie;
+    private final Map<Long, IndexedProduct> products = new HashMap<>();
+    private final Map<String, Group> groups = new HashMap<>();
+
+    public AutocompleteIndex(int k) {
+        this.trie = new TopKTrie(k);
+    }
+
+    public void index(ProductDocument document, long unitsSold) {
+        long weight = unitsSold + 1;
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.id());
+
+            trie.put(productKey(document.id()), document.title(), weight, wordStarts(document.title()));
+            String brandKey = addToGroup("b:", document.brand(), weight);
+            String categoryKey = addToGroup("c:", document.category(), weight);
+            products.put(document.id(), new IndexedProduct(brandKey, categoryKey, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            // The same text can be both a brand and a title; only show it once
+            return trie.complete(prefix, limit + 1).stream().distinct().limit(limit).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int entries() {
+        lock.readLock().lock();
+        try {
+            return trie.entries();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodes() {
+        lock.readLock().lock();
+        try {
+            return trie.nodes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        IndexedProduct previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        trie.remove(productKey(productId));
+        removeFromGroup(previous.brandKey(), previous.weight());
+        removeFromGroup(previous.categoryKey(), previous.weight());
+    }
+
+    private String addToGroup(String kind, String name, long weight) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String key = kind + name.trim().toLowerCase(Locale.ROOT);
+        Group group = groups.computeIfAbsent(key, k -> new Group(name.trim()));
+        group.products++;
+        group.weight += weight;
+        trie.put(key, group.text, group.weight, wordStarts(group.text));
+        return key;
+    }
+
+    private void removeFromGroup(String key, long weight) {
+        if (key == null) {
+            return;
+        }
+        Group group = groups.get(key);
+        group.products--;
+        group.weight -= weight;
+        if (group.products == 0) {
+            groups.remove(key);
+            trie.remove(key);
+        } else {
+            trie.put(key, group.text, group.weight, wordStarts(group.text));
+        }
+    }
+
+    private static List<String> wordStarts(String text) {
+        List<String> starts = new ArrayList<>(MAX_WORD_STARTS);
+        if (text == null) {
+            return starts;
+        }
+        boolean inWord = false;
+        for (int i = 0; i < text.length() && starts.size() < MAX_WORD_STARTS; i++) {
+            boolean wordChar = Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && !inWord) {
+                starts.add(text.substring(i));
+            }
+            inWord = wordChar;
+        }
+        return starts;
+    }
+
+    private static String productKey(Long productId) {
+        return "p:" + productId;
+    }
+
+    private record IndexedProduct(String brandKey, String categoryKey, long weight) {
+    }
+
+    private static final class Group {
+        private final String text;
+        private int products;
+        private long weight;
+
+        private Group(String text) {
+            this.text = text;
+        }
+    }
+}
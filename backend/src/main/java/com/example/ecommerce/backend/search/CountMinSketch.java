@@ -0,0 +1,59 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.Arrays;
+
+// Fixed-size frequency estimator: each key bumps one counter per row and the estimate is
+// the smallest of its counters, so it can only overcount (by roughly total / width with
+// high probability). Not thread-safe; owned by the analytics consumer thread.
+final class CountMinSketch {
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int mask;
+    private final int[][] rows;
+
+    CountMinSketch(int requestedWidth) {
+        int width = Integer.highestOneBit(Math.max(2, requestedWidth - 1)) << 1;
+        this.mask = width - 1;
+        this.rows = new int[SEEDS.length][width];
+    }
+
+    void add(String key, int count) {
+        int hash = key.hashCode();
+        for (int row = 0; row < rows.length; row++) {
+            int index = index(hash, row);
+            rows[row][index] = saturatedAdd(rows[row][index], count);
+        }
+    }
+
+    int estimate(String key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < rows.length; row++) {
+            estimate = Math.min(estimate, rows[row][index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        for (int[] row : rows) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    private int index(int hash, int row) {
+        // murmur3 finalizer over a per-row seed, so rows hash independently
+        int h = hash ^ SEEDS[row];
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private static int saturatedAdd(int current, int count) {
+        int sum = current + count;
+        return sum < current ? Integer.MAX_VALUE : sum;
+    }
+}
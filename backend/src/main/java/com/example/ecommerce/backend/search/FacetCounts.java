@@ -0,0 +1,15 @@
+package com.example.ecommerce.backend.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Facet counts for one query and filter set. Each facet is counted with every other active
+// filter applied but not its own, so selecting a brand still shows the other brands' counts.
+public record FacetCounts(long totalHits, List<Value> categories, List<Value> brands, List<PriceRange> priceRanges) {
+
+    public record Value(String value, long count) {
+    }
+
+    public record PriceRange(String label, BigDecimal min, BigDecimal max, long count) {
+    }
+}
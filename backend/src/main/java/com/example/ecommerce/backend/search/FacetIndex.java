@@ -0,0 +1,140 @@
+package com.example.ecommerce.backend.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Per-value ordinal sets for the category, brand and price-bucket facets of an inverted
+// index. Counting a facet is intersecting each value's set with the bitmap of documents
+// that pass the query and the other filters. Guarded by the owning index's lock.
+final class FacetIndex {
+
+    // Upper bounds are exclusive; the last bucket is open-ended
+    private static final String[] PRICE_LABELS = {
+            "Under $25", "$25 - $50", "$50 - $100", "$100 - $250", "$250 - $500", "Over $500"
+    };
+    private static final long[] PRICE_BOUNDS_CENTS = {0, 2_500, 5_000, 10_000, 25_000, 50_000};
+
+    private final Facet categories = new Facet();
+    private final Facet brands = new Facet();
+    private final OrdinalSet[] priceBuckets = new OrdinalSet[PRICE_LABELS.length];
+
+    FacetIndex() {
+        for (int i = 0; i < priceBuckets.length; i++) {
+            priceBuckets[i] = new OrdinalSet();
+        }
+    }
+
+    void add(int ordinal, String category, String brand, long priceCents) {
+        categories.add(ordinal, category);
+        brands.add(ordinal, brand);
+        priceBuckets[priceBucket(priceCents)].add(ordinal);
+    }
+
+    // `matches` are the live documents matching the query; the filter masks are null when
+    // that filter is not active
+    FacetCounts count(long[] matches, long[] categoryMask, long[] brandMask, long[] priceMask) {
+        long totalHits = cardinality(and(matches, categoryMask, brandMask, priceMask));
+
+        List<FacetCounts.Value> categoryCounts = categories.count(and(matches, brandMask, priceMask));
+        List<FacetCounts.Value> brandCounts = brands.count(and(matches, categoryMask, priceMask));
+
+        long[] forPrice = and(matches, categoryMask, brandMask);
+        List<FacetCounts.PriceRange> priceCounts = new ArrayList<>(priceBuckets.length);
+        for (int i = 0; i < priceBuckets.length; i++) {
+            BigDecimal min = BigDecimal.valueOf(PRICE_BOUNDS_CENTS[i], 2);
+            BigDecimal max = i + 1 < PRICE_BOUNDS_CENTS.length ? BigDecimal.valueOf(PRICE_BOUNDS_CENTS[i + 1], 2) : null;
+            priceCounts.add(new FacetCounts.PriceRange(PRICE_LABELS[i], min, max, priceBuckets[i].andCardinality(forPrice)));
+        }
+        return new FacetCounts(totalHits, categoryCounts, brandCounts, priceCounts);
+    }
+
+    long[] categoryMask(String category, int length) {
+        return categories.mask(category, length);
+    }
+
+    long[] brandMask(String brand, int length) {
+        return brands.mask(brand, length);
+    }
+
+    private static int priceBucket(long priceCents) {
+        for (int i = PRICE_BOUNDS_CENTS.length - 1; i > 0; i--) {
+            if (priceCents >= PRICE_BOUNDS_CENTS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static long[] and(long[] matches, long[]... masks) {
+        long[] result = matches.clone();
+        for (long[] mask : masks) {
+            if (mask == null) {
+                continue;
+            }
+            for (int i = 0; i < result.length; i++) {
+                result[i] &= i < mask.length ? mask[i] : 0L;
+            }
+        }
+        return result;
+    }
+
+    static long cardinality(long[] words) {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Values are matched case-insensitively, like the search filters; the first spelling seen
+    // is the one reported
+    private static final class Facet {
+        private final Map<String, Integer> idByKey = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<OrdinalSet> sets = new ArrayList<>();
+
+        private void add(int ordinal, String value) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            Integer id = idByKey.get(key(value));
+            if (id == null) {
+                id = names.size();
+                idByKey.put(key(value), id);
+                names.add(value);
+                sets.add(new OrdinalSet());
+            }
+            sets.get(id).add(ordinal);
+        }
+
+        private long[] mask(String value, int length) {
+            Integer id = idByKey.get(key(value));
+            return id == null ? new long[length] : sets.get(id).toWords(length);
+        }
+
+        private List<FacetCounts.Value> count(long[] candidates) {
+            List<FacetCounts.Value> counts = new ArrayList<>();
+            if (cardinality(candidates) == 0) {
+                return counts;
+            }
+            for (int id = 0; id < sets.size(); id++) {
+                long count = sets.get(id).andCardinality(candidates);
+                if (count > 0) {
+                    counts.add(new FacetCounts.Value(names.get(id), count));
+                }
+            }
+            counts.sort(Comparator.comparingLong(FacetCounts.Value::count).reversed()
+                    .thenComparing(FacetCounts.Value::value));
+            return counts;
+        }
+
+        private static String key(String value) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.ecommerce.backend.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Append-only inverted index over product documents. Every indexed version of a product
+// gets the next int ordinal, so posting lists stay sorted without re-sorting; an update
+// tombstones the old ordinal and appends a new one. Posting lists are parallel int arrays
+// (doc ordinal, weighted term frequency). Ranking is BM25 with title and brand/category
+// matches weighted above description matches. Multi-term queries are conjunctive.
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int FACET_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final FacetIndex facets = new FacetIndex();
+
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private long[] priceCents = new long[1024];
+    private String[] categories = new String[1024];
+    private String[] brands = new String[1024];
+    // Posting lists each live ordinal appears in, so a tombstone can lower their live df
+    private Postings[][] termLists = new Postings[1024][];
+    private int nextOrdinal;
+    private int liveCount;
+    private long liveLength;
+
+    public void index(ProductDocument document) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        addTerms(frequencies, document.title(), TITLE_WEIGHT);
+        addTerms(frequencies, document.category(), FACET_WEIGHT);
+        addTerms(frequencies, document.brand(), FACET_WEIGHT);
+        addTerms(frequencies, document.description(), DESCRIPTION_WEIGHT);
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.id());
+
+            int ordinal = nextOrdinal++;
+            ensureCapacity(ordinal + 1);
+            productIds[ordinal] = document.id();
+            lengths[ordinal] = length;
+            priceCents[ordinal] = toCents(document.price());
+            categories[ordinal] = document.category();
+            brands[ordinal] = document.brand();
+            live.set(ordinal);
+            liveCount++;
+            liveLength += length;
+            ordinalByProductId.put(document.id(), ordinal);
+            facets.add(ordinal, document.category(), document.brand(), priceCents[ordinal]);
+
+            Postings[] lists = new Postings[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                Postings list = postings.computeIfAbsent(entry.getKey(), term -> new Postings());
+                list.add(ordinal, entry.getValue());
+                lists[i++] = list;
+            }
+            termLists[ordinal] = lists;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        Integer ordinal = ordinalByProductId.remove(productId);
+        if (ordinal != null && live.get(ordinal)) {
+            live.clear(ordinal);
+            liveCount--;
+            liveLength -= lengths[ordinal];
+            for (Postings list : termLists[ordinal]) {
+                list.liveSize--;
+            }
+            termLists[ordinal] = null;
+        }
+    }
+
+    public SearchHits search(String query, SearchFilter filter, int offset, int limit) {
+        List<String> terms = TextAnalyzer.analyze(query).stream().distinct().toList();
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return new SearchHits(List.of(), 0);
+                }
+            }
+            // Drive the intersection from the rarest term
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            float[] idf = new float[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = idf(lists[i].liveSize);
+            }
+            float averageLength = liveCount == 0 ? 1f : (float) liveLength / liveCount;
+            long minCents = filter.minPrice() != null ? toCents(filter.minPrice()) : Long.MIN_VALUE;
+            long maxCents = filter.maxPrice() != null ? toCents(filter.maxPrice()) : Long.MAX_VALUE;
+
+            int keep = offset + limit;
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(keep, 1024) + 1);
+            int[] cursors = new int[lists.length];
+            long total = 0;
+
+            Postings lead = lists[0];
+            candidates:
+            for (int c = 0; c < lead.size; c++) {
+                int doc = lead.docs[c];
+                if (!live.get(doc) || !matches(doc, filter, minCents, maxCents)) {
+                    continue;
+                }
+
+                float score = bm25(idf[0], lead.freqs[c], lengths[doc], averageLength);
+                for (int i = 1; i < lists.length; i++) {
+                    int position = lists[i].advance(cursors[i], doc);
+                    cursors[i] = position;
+                    if (position == lists[i].size || lists[i].docs[position] != doc) {
+                        continue candidates;
+                    }
+                    score += bm25(idf[i], lists[i].freqs[position], lengths[doc], averageLength);
+                }
+
+                total++;
+                if (top.size() < keep) {
+                    top.add(new ScoredDoc(doc, score));
+                } else if (top.peek().compareTo(score, doc) < 0) {
+                    top.poll();
+                    top.add(new ScoredDoc(doc, score));
+                }
+            }
+
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort((a, b) -> b.compareTo(a.score, a.doc));
+            List<Long> ids = new ArrayList<>(Math.max(0, ranked.size() - offset));
+            for (int i = offset; i < ranked.size(); i++) {
+                ids.add(productIds[ranked.get(i).doc]);
+            }
+            return new SearchHits(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Category, brand and price-bucket counts for the documents matching the query (all live
+    // documents when it is blank) under the given filters
+    public FacetCounts facets(String query, SearchFilter filter) {
+        List<String> terms = query == null ? List.of() : TextAnalyzer.analyze(query).stream().distinct().toList();
+
+        lock.readLock().lock();
+        try {
+            long[] matches = live.toLongArray();
+            if (query != null && !query.isBlank()) {
+                if (terms.isEmpty()) {
+                    matches = new long[matches.length];
+                }
+                for (String term : terms) {
+                    Postings list = postings.get(term);
+                    if (list == null) {
+                        matches = new long[matches.length];
+                        break;
+                    }
+                    list.retainIn(matches);
+                }
+            }
+
+            long[] categoryMask = filter.category() != null ? facets.categoryMask(filter.category(), matches.length) : null;
+            long[] brandMask = filter.brand() != null ? facets.brandMask(filter.brand(), matches.length) : null;
+            long[] priceMask = null;
+            if (filter.minPrice() != null || filter.maxPrice() != null) {
+                long minCents = filter.minPrice() != null ? toCents(filter.minPrice()) : Long.MIN_VALUE;
+                long maxCents = filter.maxPrice() != null ? toCents(filter.maxPrice()) : Long.MAX_VALUE;
+                priceMask = new long[matches.length];
+                // Prices are per document rather than bucketed, so test only the matching ones
+                for (int w = 0; w < matches.length; w++) {
+                    for (long word = matches[w]; word != 0; word &= word - 1) {
+                        int doc = (w << 6) + Long.numberOfTrailingZeros(word);
+                        if (priceCents[doc] >= minCents && priceCents[doc] <= maxCents) {
+                            priceMask[w] |= 1L << doc;
+                        }
+                    }
+                }
+            }
+            return facets.count(matches, categoryMask, brandMask, priceMask);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean matches(int doc, SearchFilter filter, long minCents, long maxCents) {
+        if (filter.category() != null && !filter.category().equalsIgnoreCase(categories[doc])) {
+            return false;
+        }
+        if (filter.brand() != null && !filter.brand().equalsIgnoreCase(brands[doc])) {
+            return false;
+        }
+        return priceCents[doc] >= minCents && priceCents[doc] <= maxCents;
+    }
+
+    // df counts live documents only, like liveCount, so idf stays positive however many
+    // tombstones a list carries
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float bm25(float idf, int frequency, int length, float averageLength) {
+        float norm = K1 * (1 - B + B * length / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    public int liveDocuments() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int deletedDocuments() {
+        lock.readLock().lock();
+        try {
+            return nextOrdinal - liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : TextAnalyzer.analyze(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static long toCents(BigDecimal price) {
+        return price == null ? 0 : price.movePointRight(2).longValue();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= productIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, productIds.length + (productIds.length >> 1));
+        productIds = Arrays.copyOf(productIds, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        brands = Arrays.copyOf(brands, capacity);
+        termLists = Arrays.copyOf(termLists, capacity);
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+        private int liveSize;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = frequency;
+            size++;
+            liveSize++;
+        }
+
+        // Clears every bit in `bits` whose doc is not in this list
+        private void retainIn(long[] bits) {
+            long[] own = new long[bits.length];
+            for (int i = 0; i < size; i++) {
+                int word = docs[i] >>> 6;
+                if (word < own.length) {
+                    own[word] |= 1L << docs[i];
+                }
+            }
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] &= own[i];
+            }
+        }
+
+        // First position at or after `from` whose doc is >= target; gallops, then binary search
+        private int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size - 1);
+            if (docs[high] < target) {
+                return size;
+            }
+            int index = Arrays.binarySearch(docs, low + 1, high + 1, target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    private record ScoredDoc(int doc, float score) implements Comparable<ScoredDoc> {
+
+        // Higher score wins; ties go to the newer ordinal
+        private int compareTo(float otherScore, int otherDoc) {
+            int byScore = Float.compare(score, otherScore);
+            return byScore != 0 ? byScore : Integer.compare(doc, otherDoc);
+        }
+
+        @Override
+        public int compareTo(ScoredDoc other) {
+            return compareTo(other.score, other.doc);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Bounded many-producer, single-consumer queue over a power-of-two array. Each slot has a
+// sequence number saying whether it is free for the producer at a given position or holds
+// an element for the consumer, so producers only contend on one CAS of the tail and never
+// wait: offer() on a full buffer returns false and the caller drops the element.
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    // Only touched by the consumer thread
+    private long head;
+
+    MpscRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            // Another producer claimed this position first; retry with the new tail
+        }
+    }
+
+    // Consumer side only. Stops at the first slot whose producer has claimed it but not
+    // finished writing; that element is picked up by the next drain.
+    int drain(Consumer<E> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) (head & mask);
+            if (sequences.get(slot) != head + 1) {
+                break;
+            }
+            E element = elements.get(slot);
+            elements.lazySet(slot, null);
+            sequences.lazySet(slot, head + mask + 1);
+            head++;
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.Arrays;
+
+// Set of document ordinals for one facet value. Starts as a sorted int array and switches
+// to a plain bitmap once that is smaller, i.e. once more than one ordinal in 32 belongs to
+// it; the same container choice Roaring makes, applied to the whole set. Ordinals only
+// ever arrive in increasing order because the inverted index appends them.
+final class OrdinalSet {
+
+    private int[] ordinals = new int[4];
+    private long[] words;
+    private int size;
+
+    void add(int ordinal) {
+        if (words != null) {
+            int word = ordinal >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length + (words.length >> 1)));
+            }
+            words[word] |= 1L << ordinal;
+            size++;
+            return;
+        }
+
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+        }
+        ordinals[size++] = ordinal;
+        if ((long) size * 32 > ordinal + 1L && size > 64) {
+            toBitmap();
+        }
+    }
+
+    private void toBitmap() {
+        words = new long[(ordinals[size - 1] >>> 6) + 1];
+        for (int i = 0; i < size; i++) {
+            words[ordinals[i] >>> 6] |= 1L << ordinals[i];
+        }
+        ordinals = null;
+    }
+
+    // Number of ordinals in this set that are also set in `bits`
+    long andCardinality(long[] bits) {
+        long count = 0;
+        if (words != null) {
+            int length = Math.min(words.length, bits.length);
+            for (int i = 0; i < length; i++) {
+                count += Long.bitCount(words[i] & bits[i]);
+            }
+            return count;
+        }
+        for (int i = 0; i < size; i++) {
+            int word = ordinals[i] >>> 6;
+            if (word >= bits.length) {
+                break;
+            }
+            if ((bits[word] & (1L << ordinals[i])) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // This set as a bitmap of `length` words
+    long[] toWords(int length) {
+        long[] result = new long[length];
+        if (words != null) {
+            System.arraycopy(words, 0, result, 0, Math.min(words.length, length));
+            return result;
+        }
+        for (int i = 0; i < size; i++) {
+            int word = ordinals[i] >>> 6;
+            if (word >= length) {
+                break;
+            }
+            result[word] |= 1L << ordinals[i];
+        }
+        return result;
+    }
+
+    boolean isBitmap() {
+        return words != null;
+    }
+}
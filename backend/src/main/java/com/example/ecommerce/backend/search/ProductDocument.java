@@ -0,0 +1,9 @@
+package com.example.ecommerce.backend.search;
+
+import java.math.BigDecimal;
+
+// The searchable columns of an active product, selected directly so indexing never loads
+// Product entities (or their lazy associations)
+public record ProductDocument(Long id, String title, String description, String category, String brand,
+                              BigDecimal price) {
+}
@@ -0,0 +1,202 @@
+package com.example.ecommerce.backend.search;
+
+import com.example.ecommerce.backend.repository.OrderItemRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.service.impl.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Owns the in-memory product indexes (full-text and autocomplete): built from the database
+// in the background once the application is up, then kept current from ProductChangedEvent
+// after each committed product write. Until the first build finishes (or when disabled)
+// isReady() is false and callers fall back to SQL.
+@Component
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int autocompleteSize;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // Products written while a rebuild is reading the table; replayed onto the new indexes
+    private final Queue<Long> changedDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    private volatile Indexes indexes;
+    private volatile boolean rebuilding;
+
+    public ProductSearchService(ProductRepository productRepository,
+                                OrderItemRepository orderItemRepository,
+                                @Value("${app.searchIndexEnabled:true}") boolean enabled,
+                                @Value("${app.searchIndexBatchSize:1000}") int batchSize,
+                                @Value("${app.autocompleteSize:10}") int autocompleteSize) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.autocompleteSize = autocompleteSize;
+    }
+
+    public boolean isReady() {
+        return indexes != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            scheduleRebuild();
+        }
+    }
+
+    // Also refreshes the sales weights behind autocomplete ranking
+    @Scheduled(initialDelayString = "${app.searchIndexRebuildIntervalMs:3600000}",
+            fixedDelayString = "${app.searchIndexRebuildIntervalMs:3600000}")
+    public void periodicRebuild() {
+        if (enabled) {
+            scheduleRebuild();
+        }
+    }
+
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    logger.error("Product search index rebuild failed", e);
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    // Builds fresh indexes off to the side and swaps them in, so searches never see partial ones
+    private void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        rebuilding = true;
+        Map<Long, Long> unitsSold = loadUnitsSold();
+        Indexes fresh = new Indexes(new InvertedIndex(), new AutocompleteIndex(autocompleteSize));
+        long lastId = 0;
+        List<ProductDocument> batch;
+        do {
+            batch = productRepository.findActiveDocumentsAfter(lastId, PageRequest.of(0, batchSize));
+            for (ProductDocument document : batch) {
+                fresh.text().index(document);
+                fresh.autocomplete().index(document, unitsSold.getOrDefault(document.id(), 0L));
+                lastId = document.id();
+            }
+        } while (batch.size() == batchSize);
+
+        // Order matters: writers check the flag before reading the indexes, so every change is
+        // either queued here or applied directly to the new indexes
+        indexes = fresh;
+        rebuilding = false;
+        Long productId;
+        while ((productId = changedDuringRebuild.poll()) != null) {
+            reindex(fresh, productId);
+        }
+
+        logger.info("Built product search index: {} products, {} terms, {} completions in {} ms",
+                fresh.text().liveDocuments(), fresh.text().terms(), fresh.autocomplete().entries(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    private Map<Long, Long> loadUnitsSold() {
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumDeliveredQuantityByProduct()) {
+            unitsSold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return unitsSold;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.productId());
+        }
+        Indexes current = indexes;
+        if (current == null) {
+            return;
+        }
+
+        reindex(current, event.productId());
+
+        // Updates leave tombstones behind; start over once they outnumber live documents
+        if (current.text().deletedDocuments() > Math.max(1024, current.text().liveDocuments())) {
+            scheduleRebuild();
+        }
+    }
+
+    private void reindex(Indexes target, Long productId) {
+        productRepository.findActiveDocumentById(productId).ifPresentOrElse(document -> {
+            Long sold = orderItemRepository.getTotalQuantitySoldByProductId(productId);
+            target.text().index(document);
+            target.autocomplete().index(document, sold != null ? sold : 0L);
+        }, () -> {
+            target.text().remove(productId);
+            target.autocomplete().remove(productId);
+        });
+    }
+
+    public SearchHits search(String query, SearchFilter filter, int offset, int limit) {
+        return indexes.text().search(query, filter, offset, limit);
+    }
+
+    public FacetCounts facets(String query, SearchFilter filter) {
+        return indexes.text().facets(query, filter);
+    }
+
+    public List<String> autocomplete(String prefix, int limit) {
+        return indexes.autocomplete().suggest(prefix, limit);
+    }
+
+    public Map<String, Object> stats() {
+        Indexes current = indexes;
+        if (current == null) {
+            return Map.of("ready", false, "rebuilding", rebuilding);
+        }
+        return Map.of(
+                "ready", true,
+                "rebuilding", rebuilding,
+                "documents", current.text().liveDocuments(),
+                "deletedDocuments", current.text().deletedDocuments(),
+                "terms", current.text().terms(),
+                "completions", current.autocomplete().entries(),
+                "completionNodes", current.autocomplete().nodes()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private record Indexes(InvertedIndex text, AutocompleteIndex autocomplete) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.ecommerce.backend.search;
+
+public record QueryCount(String query, long count) {
+}
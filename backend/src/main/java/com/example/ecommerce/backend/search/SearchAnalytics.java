@@ -0,0 +1,251 @@
+package com.example.ecommerce.backend.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Search query analytics behind trending searches and query suggestions. Request threads
+// only append to a lock-free ring buffer (dropping the event if it is full); a single
+// background thread drains it into a sliding window of count-min sketches and heavy-hitter
+// sets and publishes an immutable snapshot of the top queries that readers use as is.
+@Component
+public class SearchAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchAnalytics.class);
+
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int HEAVY_HITTERS_PER_BUCKET = 256;
+    private static final int SNAPSHOT_SIZE = 100;
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int DRAIN_BATCH = 4096;
+    private static final long DRAIN_INTERVAL_MS = 200;
+    // Saving a search is a stronger signal of intent than running it once
+    private static final int SAVED_SEARCH_WEIGHT = 3;
+
+    private final MpscRingBuffer<QueryEvent> buffer;
+    private final SlidingQueryWindow window;
+    private final long bucketMs;
+    private final int bucketCount;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService drainExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-analytics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+    // Written by the consumer thread only
+    private volatile long processed;
+    private long snapshotEpoch = Long.MIN_VALUE;
+
+    @Autowired
+    public SearchAnalytics(@Value("${app.searchAnalyticsBufferSize:8192}") int bufferSize,
+                           @Value("${app.searchAnalyticsBucketMs:300000}") long bucketMs,
+                           @Value("${app.searchAnalyticsBuckets:12}") int bucketCount) {
+        this(bufferSize, bucketMs, bucketCount, System::currentTimeMillis);
+    }
+
+    SearchAnalytics(int bufferSize, long bucketMs, int bucketCount, LongSupplier clock) {
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.window = new SlidingQueryWindow(bucketMs, bucketCount, SKETCH_WIDTH, HEAVY_HITTERS_PER_BUCKET);
+        this.bucketMs = bucketMs;
+        this.bucketCount = bucketCount;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        drainExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                logger.error("Search analytics drain failed", e);
+            }
+        }, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordSearch(String query, long totalHits) {
+        if (query != null) {
+            buffer.offer(new QueryEvent(query, 1, totalHits > 0, clock.getAsLong()));
+        }
+    }
+
+    public void recordSavedSearch(String query) {
+        if (query != null) {
+            buffer.offer(new QueryEvent(query, SAVED_SEARCH_WEIGHT, true, clock.getAsLong()));
+        }
+    }
+
+    // Consumer side: the only code that touches the window
+    void drain() {
+        int drained = buffer.drain(this::apply, DRAIN_BATCH);
+        long now = clock.getAsLong();
+        long epoch = now / bucketMs;
+        // Republish on new traffic, and on bucket rollover so expired queries drop out
+        if (drained > 0 || epoch != snapshotEpoch) {
+            List<Entry> entries = new ArrayList<>();
+            for (QueryCount top : window.top(SNAPSHOT_SIZE, now)) {
+                entries.add(new Entry(top.query(), top.count(), new HashSet<>(TextAnalyzer.analyze(top.query()))));
+            }
+            snapshot = new Snapshot(List.copyOf(entries));
+            snapshotEpoch = epoch;
+        }
+    }
+
+    private void apply(QueryEvent event) {
+        String query = normalize(event.query());
+        if (!query.isEmpty()) {
+            window.add(query, event.weight(), event.matched(), event.timeMs());
+        }
+        processed++;
+    }
+
+    public List<QueryCount> trending(int limit) {
+        List<Entry> entries = snapshot.entries();
+        List<QueryCount> trending = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && trending.size() < limit; i++) {
+            trending.add(new QueryCount(entries.get(i).query(), entries.get(i).count()));
+        }
+        return trending;
+    }
+
+    // Popular queries that extend the given one or share a search term with it
+    public List<String> relatedQueries(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> terms = TextAnalyzer.analyze(normalized);
+
+        List<String> related = new ArrayList<>();
+        for (Entry entry : snapshot.entries()) {
+            if (related.size() >= limit) {
+                break;
+            }
+            if (entry.query().equals(normalized)) {
+                continue;
+            }
+            if (entry.query().startsWith(normalized) || terms.stream().anyMatch(entry.terms()::contains)) {
+                related.add(entry.query());
+            }
+        }
+        return related;
+    }
+
+    // The most searched query within a small edit distance that is searched more often than
+    // the given one, or null
+    public String didYouMean(String query) {
+        String normalized = normalize(query);
+        if (normalized.length() < 3) {
+            return null;
+        }
+        int maxDistance = normalized.length() < 6 ? 1 : 2;
+
+        List<Entry> entries = snapshot.entries();
+        long ownCount = 0;
+        for (Entry entry : entries) {
+            if (entry.query().equals(normalized)) {
+                ownCount = entry.count();
+                break;
+            }
+        }
+
+        // Entries are sorted by count, so the first close match is the best one
+        for (Entry entry : entries) {
+            if (entry.count() <= ownCount) {
+                break;
+            }
+            int distance = boundedEditDistance(normalized, entry.query(), maxDistance);
+            if (distance > 0 && distance <= maxDistance) {
+                return entry.query();
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "bufferCapacity", buffer.capacity(),
+                "droppedEvents", buffer.dropped(),
+                "processedEvents", processed,
+                "trackedQueries", snapshot.entries().size(),
+                "windowMs", bucketMs * bucketCount
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdownNow();
+    }
+
+    static String normalize(String query) {
+        String trimmed = query.trim().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(Math.min(trimmed.length(), MAX_QUERY_LENGTH));
+        boolean space = false;
+        for (int i = 0; i < trimmed.length() && normalized.length() < MAX_QUERY_LENGTH; i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                normalized.append(' ');
+                space = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    // Levenshtein distance, or maxDistance + 1 as soon as it is known to exceed maxDistance
+    static int boundedEditDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    private record QueryEvent(String query, int weight, boolean matched, long timeMs) {
+    }
+
+    private record Entry(String query, long count, Set<String> terms) {
+    }
+
+    private record Snapshot(List<Entry> entries) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce.backend.search;
+
+import java.math.BigDecimal;
+
+// Optional narrowing applied to search candidates; null fields do not filter
+public record SearchFilter(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice) {
+
+    public static final SearchFilter NONE = new SearchFilter(null, null, null, null);
+}
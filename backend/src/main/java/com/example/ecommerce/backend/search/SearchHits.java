@@ -0,0 +1,7 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.List;
+
+// One page of product ids in rank order plus the total number of matches
+public record SearchHits(List<Long> productIds, long totalHits) {
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Query counts over the last `bucketCount` time buckets. Each bucket has its own count-min
+// sketch and heavy-hitter set; a bucket is wiped and reused once its time slot falls out of
+// the window, so old traffic ages out without per-query timestamps. Not thread-safe.
+final class SlidingQueryWindow {
+
+    private final long bucketMs;
+    private final Bucket[] buckets;
+
+    SlidingQueryWindow(long bucketMs, int bucketCount, int sketchWidth, int heavyHitters) {
+        this.bucketMs = bucketMs;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(sketchWidth), new SpaceSaving(heavyHitters));
+        }
+    }
+
+    // Zero-result queries are counted but never become trending or suggestion candidates
+    void add(String query, int count, boolean candidate, long timeMs) {
+        long epoch = timeMs / bucketMs;
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+        if (bucket.epoch != epoch) {
+            if (bucket.epoch > epoch) {
+                // Older than anything the window still covers
+                return;
+            }
+            bucket.reset(epoch);
+        }
+        bucket.sketch.add(query, count);
+        if (candidate) {
+            bucket.heavyHitters.add(query, count);
+        }
+    }
+
+    long estimate(String query, long nowMs) {
+        long total = 0;
+        long oldest = oldestEpoch(nowMs);
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch >= oldest) {
+                total += bucket.sketch.estimate(query);
+            }
+        }
+        return total;
+    }
+
+    List<QueryCount> top(int limit, long nowMs) {
+        long oldest = oldestEpoch(nowMs);
+        Set<String> candidates = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch >= oldest) {
+                candidates.addAll(bucket.heavyHitters.keys());
+            }
+        }
+
+        List<QueryCount> counts = new ArrayList<>(candidates.size());
+        for (String query : candidates) {
+            counts.add(new QueryCount(query, estimate(query, nowMs)));
+        }
+        counts.sort(Comparator.comparingLong(QueryCount::count).reversed().thenComparing(QueryCount::query));
+        return counts.size() > limit ? List.copyOf(counts.subList(0, limit)) : List.copyOf(counts);
+    }
+
+    private long oldestEpoch(long nowMs) {
+        return nowMs / bucketMs - buckets.length + 1;
+    }
+
+    private static final class Bucket {
+        private final CountMinSketch sketch;
+        private final SpaceSaving heavyHitters;
+        private long epoch = Long.MIN_VALUE;
+
+        private Bucket(CountMinSketch sketch, SpaceSaving heavyHitters) {
+            this.sketch = sketch;
+            this.heavyHitters = heavyHitters;
+        }
+
+        private void reset(long newEpoch) {
+            sketch.clear();
+            heavyHitters.clear();
+            epoch = newEpoch;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Space-Saving heavy hitters: tracks at most `capacity` keys. An untracked key replaces the
+// one with the smallest count and inherits that count, so any key seen more than
+// total / capacity times is guaranteed to be tracked. Counts are upper bounds; the caller
+// re-estimates candidates with the count-min sketch. Not thread-safe.
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, long[]> counts;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+
+    void add(String key, int count) {
+        long[] current = counts.get(key);
+        if (current != null) {
+            current[0] += count;
+            return;
+        }
+        if (counts.size() < capacity) {
+            counts.put(key, new long[]{count});
+            return;
+        }
+
+        // Linear scan for the minimum: capacity is small and this runs on the consumer thread
+        String minKey = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        long[] evicted = counts.remove(minKey);
+        evicted[0] = minCount + count;
+        counts.put(key, evicted);
+    }
+
+    Set<String> keys() {
+        return counts.keySet();
+    }
+
+    void clear() {
+        counts.clear();
+    }
+}
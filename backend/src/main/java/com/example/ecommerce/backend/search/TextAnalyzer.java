@@ -0,0 +1,74 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Shared by indexing and querying so both sides agree on terms: lower-cases, splits on
+// anything that is not a letter or digit, drops stop words and applies a light English
+// suffix stemmer (plurals, -ing, -ed). Deliberately conservative: over-stemming merges
+// unrelated product words more often than it helps recall.
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        if (token.length() == 1 && !Character.isDigit(token.charAt(0))) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    static String stem(String token) {
+        if (!Character.isLetter(token.charAt(token.length() - 1))) {
+            return token;
+        }
+
+        String stem = token;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("es") && stem.length() > 4 &&
+                (stem.endsWith("sses") || stem.endsWith("shes") || stem.endsWith("ches") || stem.endsWith("xes"))) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("ing") && stem.length() > 5) {
+            stem = stem.substring(0, stem.length() - 3);
+        } else if (stem.endsWith("ed") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.ecommerce.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Radix trie from normalized completion keys to weighted entries. Every node keeps the ids
+// of the k best entries in its subtree, so a lookup is a walk down the prefix followed by
+// reading one small int array. Only the nodes on an entry's paths are touched when it
+// changes: a new or heavier entry is merged into each top-k list in O(k), and a removed or
+// lighter one triggers a bottom-up recompute, which works because a node's best k are
+// always among its own terminal entries and its children's best k.
+// Not thread-safe; AutocompleteIndex guards it.
+class TopKTrie {
+
+    // Keys are cut here to keep long titles from growing deep unique tails
+    static final int MAX_KEY_LENGTH = 32;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int k;
+    private final Node root = new Node(new char[0]);
+    private final Map<String, Integer> idByKey = new HashMap<>();
+    private final List<Integer> freeIds = new ArrayList<>();
+
+    private String[] texts = new String[256];
+    private long[] weights = new long[256];
+    private String[][] paths = new String[256][];
+    private int nextId;
+    private int nodeCount = 1;
+
+    TopKTrie(int k) {
+        this.k = k;
+    }
+
+    // Adds the entry under each of the given completion keys, or updates it in place
+    void put(String entryKey, String text, long weight, List<String> completionKeys) {
+        Integer existing = idByKey.get(entryKey);
+        String[] newPaths = completionKeys.stream()
+                .map(TopKTrie::normalize)
+                .filter(path -> !path.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+
+        if (existing != null && Arrays.equals(paths[existing], newPaths)) {
+            boolean heavier = weight >= weights[existing];
+            texts[existing] = text;
+            weights[existing] = weight;
+            for (String path : newPaths) {
+                if (heavier) {
+                    promote(walk(path), existing);
+                } else {
+                    recompute(walk(path));
+                }
+            }
+            return;
+        }
+        if (existing != null) {
+            remove(entryKey);
+        }
+
+        int id = allocate();
+        idByKey.put(entryKey, id);
+        texts[id] = text;
+        weights[id] = weight;
+        paths[id] = newPaths;
+        for (String path : newPaths) {
+            insert(path, id);
+        }
+    }
+
+    void remove(String entryKey) {
+        Integer id = idByKey.remove(entryKey);
+        if (id == null) {
+            return;
+        }
+        for (String path : paths[id]) {
+            List<Node> trail = walk(path);
+            Node terminal = trail.get(trail.size() - 1);
+            terminal.terminals = without(terminal.terminals, id);
+            prune(trail);
+            recompute(trail);
+        }
+        texts[id] = null;
+        paths[id] = null;
+        freeIds.add(id);
+    }
+
+    List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                return List.of();
+            }
+            int matched = commonPrefix(child.label, key, i);
+            if (i + matched == key.length()) {
+                node = child;
+                break;
+            }
+            if (matched < child.label.length) {
+                return List.of();
+            }
+            i += matched;
+            node = child;
+        }
+
+        List<String> results = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int j = 0; j < node.top.length && results.size() < limit; j++) {
+            results.add(texts[node.top[j]]);
+        }
+        return results;
+    }
+
+    int entries() {
+        return idByKey.size();
+    }
+
+    int nodes() {
+        return nodeCount;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(Math.min(text.length(), MAX_KEY_LENGTH));
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length() && key.length() < MAX_KEY_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && key.length() > 0) {
+                    key.append(' ');
+                    if (key.length() == MAX_KEY_LENGTH) {
+                        break;
+                    }
+                }
+                key.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return key.toString().strip();
+    }
+
+    private void insert(String path, int id) {
+        List<Node> trail = new ArrayList<>();
+        Node node = root;
+        trail.add(node);
+        int i = 0;
+        while (i < path.length()) {
+            Node child = node.child(path.charAt(i));
+            if (child == null) {
+                child = new Node(path.substring(i).toCharArray());
+                node.addChild(child);
+                nodeCount++;
+                i = path.length();
+            } else {
+                int matched = commonPrefix(child.label, path, i);
+                if (matched < child.label.length) {
+                    child = split(node, child, matched);
+                }
+                i += matched;
+            }
+            node = child;
+            trail.add(node);
+        }
+        node.terminals = with(node.terminals, id);
+        promote(trail, id);
+    }
+
+    // Replaces child with a node holding the first `at` chars of its label, parent of the rest
+    private Node split(Node parent, Node child, int at) {
+        Node middle = new Node(Arrays.copyOfRange(child.label, 0, at));
+        parent.replaceChild(child, middle);
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.addChild(child);
+        middle.top = child.top;
+        nodeCount++;
+        return middle;
+    }
+
+    private List<Node> walk(String path) {
+        List<Node> trail = new ArrayList<>();
+        Node node = root;
+        trail.add(node);
+        int i = 0;
+        while (i < path.length()) {
+            node = node.child(path.charAt(i));
+            i += node.label.length;
+            trail.add(node);
+        }
+        return trail;
+    }
+
+    // Drops nodes that no longer lead to any entry, deepest first
+    private void prune(List<Node> trail) {
+        for (int depth = trail.size() - 1; depth > 0; depth--) {
+            Node node = trail.get(depth);
+            if (node.terminals.length > 0 || node.children.length > 0) {
+                return;
+            }
+            trail.get(depth - 1).removeChild(node);
+            trail.remove(depth);
+            nodeCount--;
+        }
+    }
+
+    // Valid when the entry is new or only got heavier: no other entry's rank can change
+    private void promote(List<Node> trail, int id) {
+        for (Node node : trail) {
+            node.top = merge(node.top, id);
+        }
+    }
+
+    private int[] merge(int[] top, int id) {
+        int[] merged = new int[Math.min(k, top.length + 1)];
+        int n = 0;
+        boolean placed = false;
+        for (int i = 0; i < top.length && n < merged.length; i++) {
+            if (top[i] == id) {
+                continue;
+            }
+            if (!placed && ranksBefore(id, top[i])) {
+                merged[n++] = id;
+                placed = true;
+                if (n == merged.length) {
+                    break;
+                }
+            }
+            merged[n++] = top[i];
+        }
+        if (!placed && n < merged.length) {
+            merged[n++] = id;
+        }
+        return n == merged.length ? merged : Arrays.copyOf(merged, n);
+    }
+
+    private boolean ranksBefore(int a, int b) {
+        int byWeight = Long.compare(weights[b], weights[a]);
+        return byWeight != 0 ? byWeight < 0 : texts[a].compareTo(texts[b]) < 0;
+    }
+
+    private void recompute(List<Node> trail) {
+        for (int depth = trail.size() - 1; depth >= 0; depth--) {
+            Node node = trail.get(depth);
+            node.top = best(node);
+        }
+    }
+
+    private int[] best(Node node) {
+        if (node.children.length == 0 && node.terminals.length <= 1) {
+            return node.terminals;
+        }
+        int size = node.terminals.length;
+        for (Node child : node.children) {
+            size += child.top.length;
+        }
+        Integer[] candidates = new Integer[size];
+        int n = 0;
+        for (int id : node.terminals) {
+            candidates[n++] = id;
+        }
+        for (Node child : node.children) {
+            for (int id : child.top) {
+                candidates[n++] = id;
+            }
+        }
+        Arrays.sort(candidates, (a, b) -> a.equals(b) ? 0 : ranksBefore(a, b) ? -1 : 1);
+
+        int[] top = new int[Math.min(k, size)];
+        int count = 0;
+        for (int i = 0; i < size && count < top.length; i++) {
+            if (i == 0 || !candidates[i].equals(candidates[i - 1]) && !contains(top, count, candidates[i])) {
+                top[count++] = candidates[i];
+            }
+        }
+        return count == top.length ? top : Arrays.copyOf(top, count);
+    }
+
+    private int allocate() {
+        if (!freeIds.isEmpty()) {
+            return freeIds.remove(freeIds.size() - 1);
+        }
+        if (nextId == texts.length) {
+            int capacity = texts.length * 2;
+            texts = Arrays.copyOf(texts, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            paths = Arrays.copyOf(paths, capacity);
+        }
+        return nextId++;
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int max = Math.min(label.length, key.length() - offset);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] with(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int[] without(int[] values, int value) {
+        int[] result = new int[values.length];
+        int n = 0;
+        for (int v : values) {
+            if (v != value) {
+                result[n++] = v;
+            }
+        }
+        return n == 0 ? EMPTY : Arrays.copyOf(result, n);
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private int[] terminals = EMPTY;
+        private int[] top = EMPTY;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label[0];
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private void addChild(Node child) {
+            int at = 0;
+            while (at < children.length && children[at].label[0] < child.label[0]) {
+                at++;
+            }
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        private void replaceChild(Node existing, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == existing) {
+                    children[i] = replacement;
+                    return;
+                }
+            }
+        }
+
+        private void removeChild(Node child) {
+            Node[] shrunk = new Node[children.length - 1];
+            int n = 0;
+            for (Node c : children) {
+                if (c != child) {
+                    shrunk[n++] = c;
+                }
+            }
+            children = n == 0 ? NO_CHILDREN : shrunk;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ecommerce.backend.security.jwt;
 
 import com.example.ecommerce.backend.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,6 +27,16 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private AuthenticatedTokenCache authenticatedTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // When enabled, the principal is rebuilt from token claims instead of a user lookup
+    @Value("${app.jwtStatelessPrincipal:false}")
+    private boolean statelessPrincipal;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -32,10 +44,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = jwt != null ? resolvePrincipal(jwt) : null;
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -49,6 +59,30 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolvePrincipal(String jwt) {
+        UserDetails userDetails = authenticatedTokenCache.get(jwt);
+        if (userDetails != null) {
+            return userDetails;
+        }
+
+        Claims claims = jwtUtils.parseClaims(jwt);
+        if (claims == null || tokenRevocationRegistry.isRevoked(claims.getSubject(), jwtUtils.getTokenVersion(claims))) {
+            return null;
+        }
+
+        if (statelessPrincipal && jwtUtils.hasPrincipalClaims(claims)) {
+            if (!jwtUtils.isActiveFromClaims(claims)) {
+                return null;
+            }
+            userDetails = jwtUtils.getPrincipalFromClaims(claims);
+        } else {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        authenticatedTokenCache.put(jwt, userDetails, jwtUtils.getTokenVersion(claims), claims.getExpiration());
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
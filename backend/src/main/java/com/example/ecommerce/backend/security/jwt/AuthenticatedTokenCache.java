@@ -0,0 +1,81 @@
+package com.example.ecommerce.backend.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Remembers tokens that already passed signature validation, so repeat requests with the
+// same bearer token skip parsing and the principal lookup. An entry never outlives the
+// token's own expiry, and is capped at app.jwtPrincipalCacheTtlMs so account changes
+// still reach the filter quickly.
+@Component
+public class AuthenticatedTokenCache {
+
+    private final Cache<String, CachedPrincipal> cache;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    public AuthenticatedTokenCache(TokenRevocationRegistry tokenRevocationRegistry,
+                                   @Value("${app.jwtPrincipalCacheSize:10000}") long maximumSize,
+                                   @Value("${app.jwtPrincipalCacheTtlMs:30000}") long ttlMs) {
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(TimeUnit.MILLISECONDS.toNanos(ttlMs)))
+                .build();
+    }
+
+    public UserDetails get(String token) {
+        CachedPrincipal cached = cache.getIfPresent(token);
+        if (cached == null || cached.expiresAtMillis() <= System.currentTimeMillis()) {
+            return null;
+        }
+        if (tokenRevocationRegistry.isRevoked(cached.userDetails().getUsername(), cached.tokenVersion())) {
+            cache.invalidate(token);
+            return null;
+        }
+        return cached.userDetails();
+    }
+
+    public void put(String token, UserDetails userDetails, Long tokenVersion, Date tokenExpiration) {
+        long expiresAt = tokenExpiration != null ? tokenExpiration.getTime() : System.currentTimeMillis();
+        if (expiresAt > System.currentTimeMillis()) {
+            cache.put(token, new CachedPrincipal(userDetails, tokenVersion, expiresAt));
+        }
+    }
+
+    public void invalidateUser(String username) {
+        cache.asMap().values().removeIf(cached -> cached.userDetails().getUsername().equals(username));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, Long tokenVersion, long expiresAtMillis) {
+    }
+
+    private record TokenExpiry(long maxTtlNanos) implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String token, CachedPrincipal cached, long currentTime) {
+            long untilTokenExpiry = TimeUnit.MILLISECONDS.toNanos(cached.expiresAtMillis() - System.currentTimeMillis());
+            return Math.max(0, Math.min(untilTokenExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, CachedPrincipal cached, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, CachedPrincipal cached, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,22 +1,36 @@
 package com.example.ecommerce.backend.security.jwt;
 
+import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.security.services.UserPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_ACTIVE = "active";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+
     //TODO: For extra security: Use key rotation (e.g., maintain multiple valid keys and rotate every few weeks/months)
     //TODO: This is for deployment
     @Value("${app.jwtSecret}")
@@ -28,26 +42,83 @@ public class JwtUtils {
     @Value("${app.jwtRefreshExpirationMs}")
     private long jwtRefreshExpirationMs;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // Decoded once; the parser is immutable and thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return buildAccessToken(userPrincipal, userPrincipal.isEnabled());
+    }
 
+    public String generateTokenForUser(User user) {
+        return buildAccessToken(UserPrincipal.create(user), Boolean.TRUE.equals(user.getIsActive()));
+    }
+
+    public String generateTokenFromUsername(String username) {
         return Jwts.builder()
-                .setSubject((userPrincipal.getUsername()))
+                .setSubject(username)
+                .claim(CLAIM_TOKEN_VERSION, tokenRevocationRegistry.currentVersion(username))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(key(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String generateTokenFromUsername(String username) {
+    // Carries enough of the user to rebuild UserPrincipal without a database lookup
+    private String buildAccessToken(UserPrincipal userPrincipal, boolean active) {
+        String role = userPrincipal.getAuthorities().iterator().next().getAuthority().substring(ROLE_PREFIX.length());
+
         return Jwts.builder()
-                .setSubject(username)
+                .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_NAME, userPrincipal.getName())
+                .claim(CLAIM_ROLE, role)
+                .claim(CLAIM_ACTIVE, active)
+                .claim(CLAIM_TOKEN_VERSION, tokenRevocationRegistry.currentVersion(userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(key(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    // Null for tokens issued before versions were embedded
+    public Long getTokenVersion(Claims claims) {
+        return claims.get(CLAIM_TOKEN_VERSION, Long.class);
+    }
+
+    public boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null && claims.get(CLAIM_ROLE) != null;
+    }
+
+    public boolean isActiveFromClaims(Claims claims) {
+        return Boolean.TRUE.equals(claims.get(CLAIM_ACTIVE, Boolean.class));
+    }
+
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        List<GrantedAuthority> authorities = List.of(
+                new SimpleGrantedAuthority(ROLE_PREFIX + claims.get(CLAIM_ROLE, String.class))
+        );
+
+        return new UserPrincipal(
+                claims.get(CLAIM_USER_ID, Long.class),
+                claims.get(CLAIM_NAME, String.class),
+                claims.getSubject(),
+                claims.getSubject(),
+                null,
+                authorities
+        );
+    }
+
     public String generateRefreshToken(String username) {
         return Jwts.builder()
                 .setSubject(username)
@@ -58,18 +129,23 @@ public class JwtUtils {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return signingKey;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    // Validates and parses in one pass; returns null for any invalid token
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -80,12 +156,11 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getExpiration();
+        return jwtParser.parseClaimsJws(token).getBody().getExpiration();
     }
 
     public boolean isTokenExpired(String token) {
@@ -0,0 +1,37 @@
+package com.example.ecommerce.backend.security.jwt;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// Opaque refresh tokens: 256 random bits from one shared SecureRandom, handed out as
+// URL-safe base64. Only the SHA-256 of a token is persisted, so a leaked table cannot be
+// replayed, and a high-entropy token needs no salt or slow hash.
+@Component
+public class RefreshTokenGenerator {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+    public String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return encoder.encodeToString(bytes);
+    }
+
+    public String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ecommerce.backend.security.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory record of users whose access tokens must stop working (deactivation, role
+// change). Each revocation gives the user a new token version, strictly higher than the last;
+// tokens carry the version current when they were issued and are rejected once it is behind.
+// Entries are only needed until every token issued before them has expired.
+// Note: state is per node; each node only sees revocations made through itself.
+@Component
+public class TokenRevocationRegistry {
+
+    // Versions are revocation times in milliseconds, bumped by one when two land in the same one
+    private final Map<String, Long> versionByUsername = new ConcurrentHashMap<>();
+
+    @Value("${app.jwtExpirationMs}")
+    private long jwtExpirationMs;
+
+    public void revokeUser(String username) {
+        long now = System.currentTimeMillis();
+        versionByUsername.merge(username, now, (previous, next) -> Math.max(previous + 1, next));
+        versionByUsername.values().removeIf(version -> version < now - jwtExpirationMs);
+    }
+
+    // Embedded in new access tokens; 0 while the user has no revocation on record
+    public long currentVersion(String username) {
+        return versionByUsername.getOrDefault(username, 0L);
+    }
+
+    public boolean isRevoked(String username, Long tokenVersion) {
+        Long version = versionByUsername.get(username);
+        if (version == null) {
+            return false;
+        }
+        return tokenVersion == null || tokenVersion < version;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.ecommerce.backend.security.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs BCrypt on a small dedicated pool so a login storm can burn at most `threads` cores.
+// Work beyond the queue limit is refused immediately instead of piling up behind the pool,
+// which keeps request threads free for the rest of the API.
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    @Autowired
+    public BoundedPasswordEncoder(@Value("${app.passwordHashThreads:0}") int threads,
+                                  @Value("${app.passwordHashQueueCapacity:64}") int queueCapacity,
+                                  @Value("${app.passwordHashTimeoutMs:5000}") long timeoutMs) {
+        this(new BCryptPasswordEncoder(), threads, queueCapacity, timeoutMs);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return hash.call();
+                } finally {
+                    recordTiming(startedAt - submittedAt, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many authentication requests, please retry shortly", 1);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new TooManyRequestsException("Authentication timed out, please retry shortly", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void recordTiming(long waitNanos, long hashNanos) {
+        completed.increment();
+        totalWaitNanos.add(waitNanos);
+        totalHashNanos.add(hashNanos);
+        maxHashNanos.accumulateAndGet(hashNanos, Math::max);
+    }
+
+    public Map<String, Object> metrics() {
+        long count = completed.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("poolSize", executor.getMaximumPoolSize());
+        metrics.put("activeThreads", executor.getActiveCount());
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        metrics.put("completed", count);
+        metrics.put("rejected", rejected.sum());
+        metrics.put("timedOut", timedOut.sum());
+        metrics.put("averageHashMillis", count == 0 ? 0.0 : totalHashNanos.sum() / 1_000_000.0 / count);
+        metrics.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        metrics.put("averageQueueWaitMillis", count == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / count);
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
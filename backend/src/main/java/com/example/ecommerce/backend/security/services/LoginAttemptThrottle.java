@@ -0,0 +1,160 @@
+package com.example.ecommerce.backend.security.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Fixed-window failure counters per email and per client IP. Keys are spread over a fixed
+// set of stripes, each guarded by its own monitor, so concurrent logins for different
+// accounts rarely contend. Each stripe holds at most maxKeys / STRIPES windows, oldest first;
+// a flood of distinct keys inside one window evicts the oldest windows rather than growing.
+@Component
+public class LoginAttemptThrottle {
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int maxPerStripe;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    private final long windowMs;
+    private final LongSupplier clock;
+
+    @Autowired
+    public LoginAttemptThrottle(@Value("${app.loginMaxFailuresPerEmail:5}") int maxPerEmail,
+                                @Value("${app.loginMaxAttemptsPerIp:50}") int maxPerIp,
+                                @Value("${app.loginAttemptWindowMs:900000}") long windowMs,
+                                @Value("${app.loginThrottleMaxKeys:65536}") int maxKeys) {
+        this(maxPerEmail, maxPerIp, windowMs, maxKeys, System::currentTimeMillis);
+    }
+
+    LoginAttemptThrottle(int maxPerEmail, int maxPerIp, long windowMs, int maxKeys, LongSupplier clock) {
+        this.maxPerStripe = Math.max(1, maxKeys / STRIPES);
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.windowMs = windowMs;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // Checked before any password work so throttled callers never reach BCrypt
+    public void assertAllowed(String email, String ip) {
+        long now = clock.getAsLong();
+        if (email != null) {
+            assertUnder(emailKey(email), maxPerEmail, now);
+        }
+        if (ip != null) {
+            assertUnder(ipKey(ip), maxPerIp, now);
+        }
+    }
+
+    public void recordFailure(String email, String ip) {
+        long now = clock.getAsLong();
+        if (email != null) {
+            increment(emailKey(email), now);
+        }
+        if (ip != null) {
+            increment(ipKey(ip), now);
+        }
+    }
+
+    // Sign-ups are not failures, but each one still costs a hash, so they count against the IP
+    public void recordIpAttempt(String ip) {
+        if (ip != null) {
+            increment(ipKey(ip), clock.getAsLong());
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (email != null) {
+            String key = emailKey(email);
+            Stripe stripe = stripeFor(key);
+            synchronized (stripe) {
+                stripe.windows.remove(key);
+            }
+        }
+    }
+
+    private void assertUnder(String key, int limit, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Window window = stripe.windows.get(key);
+            if (window != null && now - window.startedAt < windowMs && window.count >= limit) {
+                long retryAfterMs = window.startedAt + windowMs - now;
+                throw new TooManyRequestsException("Too many attempts, please try again later",
+                        Math.max(1, (retryAfterMs + 999) / 1000));
+            }
+        }
+    }
+
+    private void increment(String key, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            Window window = stripe.windows.get(key);
+            if (window == null || now - window.startedAt >= windowMs) {
+                // Re-inserted so the map stays ordered by window start
+                stripe.windows.remove(key);
+                trim(stripe, now);
+                stripe.windows.put(key, new Window(now));
+            } else {
+                window.count++;
+            }
+        }
+    }
+
+    // Drops expired windows from the head, then the oldest live ones while the stripe is full
+    private void trim(Stripe stripe, long now) {
+        Iterator<Window> iterator = stripe.windows.values().iterator();
+        while (iterator.hasNext()) {
+            Window oldest = iterator.next();
+            if (now - oldest.startedAt < windowMs && stripe.windows.size() < maxPerStripe) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.windows.size();
+            }
+        }
+        return total;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+
+    private static final class Stripe {
+        private final Map<String, Window> windows = new LinkedHashMap<>();
+    }
+
+    private static final class Window {
+        private final long startedAt;
+        private int count = 1;
+
+        private Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
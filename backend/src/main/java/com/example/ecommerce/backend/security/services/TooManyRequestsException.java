@@ -0,0 +1,15 @@
+package com.example.ecommerce.backend.security.services;
+
+import lombok.Getter;
+
+// Raised when sign-in or sign-up work is refused up front; controllers map it to 429
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.ecommerce.backend.security.services;
+
+import com.example.ecommerce.backend.security.jwt.AuthenticatedTokenCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Bounded cache of database-backed principals keyed by email. Anything that changes what
+// UserPrincipal.create would return (role, active flag, name, password) must call invalidate.
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, UserPrincipal> cache;
+    private final AuthenticatedTokenCache authenticatedTokenCache;
+
+    public UserPrincipalCache(AuthenticatedTokenCache authenticatedTokenCache,
+                              @Value("${app.userPrincipalCacheSize:10000}") long maximumSize,
+                              @Value("${app.userPrincipalCacheTtlMs:300000}") long ttlMs) {
+        this.authenticatedTokenCache = authenticatedTokenCache;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        return cache.get(username, loader);
+    }
+
+    // Also drops validated tokens for the user, which hold the same principal. Inside a
+    // transaction the entry is dropped again after commit, so a concurrent load cannot
+    // re-cache the pre-commit row.
+    public void invalidate(String username) {
+        evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        }
+    }
+
+    private void evict(String username) {
+        cache.invalidate(username);
+        authenticatedTokenCache.invalidateUser(username);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
@@ -1,22 +1,27 @@
 package com.example.ecommerce.backend.service;
 
+import com.example.ecommerce.backend.dto.CartLineResponse;
+import com.example.ecommerce.backend.dto.CartSummaryResponse;
 import com.example.ecommerce.backend.model.CartItem;
 import com.example.ecommerce.backend.model.User;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CartService {
 
     // Basic cart operations
-    CartItem addToCart(Long userId, Long productId, Integer quantity);
-    CartItem updateCartItem(Long userId, Long productId, Integer quantity);
+    CartLineResponse addToCart(Long userId, Long productId, Integer quantity);
+    CartLineResponse updateCartItem(Long userId, Long productId, Integer quantity);
     void removeFromCart(Long userId, Long productId);
     void clearCart(Long userId);
+    void removeCheckedOutItems(Long userId, List<CartItem> cartItems, LocalDateTime cartReadAt);
 
     // Cart retrieval
     List<CartItem> getCartItems(Long userId);
     CartItem getCartItem(Long userId, Long productId);
+    CartSummaryResponse getCartView(Long userId);
 
     // Cart calculations
     BigDecimal getCartTotal(Long userId);
@@ -3,11 +3,16 @@ package com.example.ecommerce.backend.service;
 import com.example.ecommerce.backend.dto.InventoryResponse;
 import com.example.ecommerce.backend.dto.InventoryUpdateRequest;
 import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventoryMovement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface InventoryService {
@@ -20,8 +25,10 @@ public interface InventoryService {
     Inventory updateStock(Long productId, Integer quantity);
     Inventory addStock(Long productId, Integer quantity);
     Inventory reduceStock(Long productId, Integer quantity);
-    Inventory reserveStock(Long productId, Integer quantity);
-    Inventory releaseReservedStock(Long productId, Integer quantity);
+    void reserveStock(Long productId, Integer quantity);
+    void reserveStock(Map<Long, Integer> quantitiesByProductId);
+    void releaseReservedStock(Long productId, Integer quantity);
+    void releaseReservedStock(Map<Long, Integer> quantitiesByProductId);
     Inventory updateReorderLevel(Long productId, Integer reorderLevel);
 
     // Stock queries
@@ -48,5 +55,8 @@ public interface InventoryService {
     Long getTotalReservedQuantity();
     List<Inventory> getRecentlyUpdatedInventory(LocalDateTime since);
     Page<Inventory> getRecentlyUpdatedInventory(Pageable pageable);
+    Window<Inventory> getRecentlyUpdatedInventory(ScrollPosition position, Sort sort, int size);
+    Long countAllInventory();
     Page<Object[]> getInventorySnapshot(Pageable pageable);
+    Page<InventoryMovement> getMovements(Long productId, Pageable pageable);
 }
\ No newline at end of file
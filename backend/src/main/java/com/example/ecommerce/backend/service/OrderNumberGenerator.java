@@ -0,0 +1,7 @@
+package com.example.ecommerce.backend.service;
+
+public interface OrderNumberGenerator {
+
+    // Must be unique across every node and restart, since order_number has a unique index
+    String nextOrderNumber();
+}
@@ -5,6 +5,9 @@ import com.example.ecommerce.backend.model.OrderStatus;
 import com.example.ecommerce.backend.model.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -28,10 +31,13 @@ public interface OrderService {
     // Order retrieval
     List<Order> getAllOrders();
     Page<Order> getAllOrders(Pageable pageable);
+    Window<Order> getAllOrders(ScrollPosition position, Sort sort, int size);
+    Long countAllOrders();
     List<Order> getUserOrders(Long userId);
     Page<Order> getUserOrders(Long userId, Pageable pageable);
     List<Order> getOrdersByStatus(OrderStatus status);
     Page<Order> getOrdersByStatus(OrderStatus status, Pageable pageable);
+    Window<Order> getOrdersByStatus(OrderStatus status, ScrollPosition position, Sort sort, int size);
 
     // Search and filter
     Page<Order> searchOrders(String searchTerm, Pageable pageable);
@@ -1,8 +1,13 @@
 package com.example.ecommerce.backend.service;
 
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.dto.ProductResponse;
 import com.example.ecommerce.backend.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,8 +19,10 @@ public interface ProductService {
     // Basic CRUD operations
     Product createProduct(Product product);
     Optional<Product> getProductById(Long id);
+    Optional<ProductResponse> getProductDetail(Long id);
     Optional<Product> getProductBySku(String sku);
     Product updateProduct(Product product);
+    Product updateProduct(Product product, Integer qtyAvailable);
     void deleteProduct(Long id);
     List<Product> getAllProducts();
     Page<Product> getAllProducts(Pageable pageable);
@@ -24,7 +31,8 @@ public interface ProductService {
     Product activateProduct(Long productId);
     Product deactivateProduct(Long productId);
     List<Product> getActiveProducts();
-    Page<Product> getActiveProducts(Pageable pageable);
+    Page<ProductCardResponse> getActiveProducts(Pageable pageable);
+    Window<ProductCardResponse> getActiveProducts(ScrollPosition position, Sort sort, int size);
 
     // Inventory management
     Product updateStock(Long productId, Integer quantity);
@@ -34,22 +42,27 @@ public interface ProductService {
     List<Product> getOutOfStockProducts();
 
     // Search and filter
-    Page<Product> searchProducts(String searchTerm, Pageable pageable);
-    Page<Product> getProductsByCategory(String category, Pageable pageable);
-    Page<Product> getProductsByBrand(String brand, Pageable pageable);
+    Page<ProductCardResponse> searchProducts(String searchTerm, Pageable pageable);
+    Page<ProductCardResponse> searchProducts(String searchTerm, String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+    Page<ProductCardResponse> getProductsByCategory(String category, Pageable pageable);
+    Page<ProductCardResponse> getProductsByBrand(String brand, Pageable pageable);
+    Window<ProductCardResponse> getProductsByCategory(String category, ScrollPosition position, Sort sort, int size);
+    Window<ProductCardResponse> getProductsByBrand(String brand, ScrollPosition position, Sort sort, int size);
     Page<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
-    Page<Product> getProductsWithFilters(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+    Page<ProductCardResponse> getProductsWithFilters(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
 
     // Categories and brands
     List<String> getAllActiveCategories();
     List<String> getAllActiveBrands();
 
     // Recent and featured products
-    Page<Product> getRecentProducts(Pageable pageable);
+    Page<ProductCardResponse> getRecentProducts(Pageable pageable);
     List<Product> getProductsCreatedSince(LocalDateTime since);
 
     // Statistics
     Long countActiveProducts();
+    Long countProductsByCategory(String category);
+    Long countProductsByBrand(String brand);
     BigDecimal getAveragePrice();
 
     // Validation
@@ -1,9 +1,8 @@
 package com.example.ecommerce.backend.service;
 
 import com.example.ecommerce.backend.model.RefreshToken;
-import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.repository.RefreshTokenRepository;
-import com.example.ecommerce.backend.repository.UserRepository;
+import com.example.ecommerce.backend.security.jwt.RefreshTokenGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -11,50 +10,34 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
-    private final UserRepository userRepository;
+    private final RefreshTokenGenerator refreshTokenGenerator;
 
     @Value("${app.jwtRefreshExpirationMs}")
     private Long refreshTokenDurationMs;
 
+    @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHashWithUser(refreshTokenGenerator.hash(token));
     }
 
-    public RefreshToken createRefreshToken(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Check if a refresh token already exists for this user
-        Optional<RefreshToken> existingTokenOpt = refreshTokenRepository.findByUser(user);
-
-        RefreshToken refreshToken;
-        if (existingTokenOpt.isPresent()) {
-            // Update existing token
-            refreshToken = existingTokenOpt.get();
-            refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-            refreshToken.setToken(UUID.randomUUID().toString());
-        } else {
-            // Create new token
-            refreshToken = new RefreshToken();
-            refreshToken.setUser(user);
-            refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenDurationMs));
-            refreshToken.setToken(UUID.randomUUID().toString());
-        }
-
-        return refreshTokenRepository.save(refreshToken);
+    // Returns the raw token for the client; only its hash is stored
+    @Transactional
+    public String createRefreshToken(Long userId) {
+        String token = refreshTokenGenerator.generate();
+        refreshTokenRepository.upsertForUser(userId, refreshTokenGenerator.hash(token),
+                Instant.now().plusMillis(refreshTokenDurationMs));
+        return token;
     }
 
-
+    // Expired rows are left for RefreshTokenSweeper rather than deleted on the request path
     public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
+        if (token.isExpired(Instant.now())) {
             throw new RuntimeException("Refresh token was expired. Please make a new signin request");
         }
 
@@ -63,8 +46,6 @@ public class RefreshTokenService {
 
     @Transactional
     public int deleteByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return refreshTokenRepository.deleteByUser(user);
+        return refreshTokenRepository.deleteByUserId(userId);
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,9 @@ import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.model.UserRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,6 +33,7 @@ public interface UserService {
     User deactivateUser(Long userId);
     List<User> getUsersByRole(UserRole role);
     Page<User> getUsersByRole(UserRole role, Pageable pageable);
+    Window<User> getUsersByRole(UserRole role, ScrollPosition position, Sort sort, int size);
     List<User> getActiveUsers();
 
     // Search and filter
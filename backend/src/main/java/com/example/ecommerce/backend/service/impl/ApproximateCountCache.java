@@ -0,0 +1,38 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Short-lived COUNT(*) results for cursor-paged listings that ask for a total. Counts may be
+// up to the TTL stale, which is fine for "about N results" and spares every page the count.
+@Component
+public class ApproximateCountCache {
+
+    private final Cache<String, Long> cache;
+
+    public ApproximateCountCache(@Value("${app.approximateCountCacheTtlMs:60000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public long get(String key, LongSupplier count) {
+        return cache.get(key, ignored -> count.getAsLong());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
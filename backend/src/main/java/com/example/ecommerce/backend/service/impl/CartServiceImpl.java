@@ -1,5 +1,7 @@
 package com.example.ecommerce.backend.service.impl;
 
+import com.example.ecommerce.backend.dto.CartLineResponse;
+import com.example.ecommerce.backend.dto.CartSummaryResponse;
 import com.example.ecommerce.backend.model.CartItem;
 import com.example.ecommerce.backend.model.Product;
 import com.example.ecommerce.backend.model.User;
@@ -9,6 +11,7 @@ import com.example.ecommerce.backend.service.ProductService;
 import com.example.ecommerce.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -24,9 +27,16 @@ public class CartServiceImpl implements CartService {
     private final CartItemRepository cartItemRepository;
     private final UserService userService;
     private final ProductService productService;
+    private final CartStore cartStore;
+    private final ExpiredCartPurger expiredCartPurger;
+    private final CartStockReconciler cartStockReconciler;
 
     @Override
-    public CartItem addToCart(Long userId, Long productId, Integer quantity) {
+    public CartLineResponse addToCart(Long userId, Long productId, Integer quantity) {
+        if (cartStore.isEnabled()) {
+            return cartStore.add(userId, productId, quantity);
+        }
+
         // Validate user and product
         User user = userService.getUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -57,19 +67,23 @@ public class CartServiceImpl implements CartService {
             }
 
             cartItem.setQuantity(newQuantity);
-            return cartItemRepository.save(cartItem);
+            return CartLineResponse.of(cartItemRepository.save(cartItem));
         } else {
             // Create new cart item
             CartItem cartItem = new CartItem();
             cartItem.setUser(user);
             cartItem.setProduct(product);
             cartItem.setQuantity(quantity);
-            return cartItemRepository.save(cartItem);
+            return CartLineResponse.of(cartItemRepository.save(cartItem));
         }
     }
 
     @Override
-    public CartItem updateCartItem(Long userId, Long productId, Integer quantity) {
+    public CartLineResponse updateCartItem(Long userId, Long productId, Integer quantity) {
+        if (cartStore.isEnabled()) {
+            return cartStore.update(userId, productId, quantity);
+        }
+
         CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
@@ -84,49 +98,85 @@ public class CartServiceImpl implements CartService {
         }
 
         cartItem.setQuantity(quantity);
-        return cartItemRepository.save(cartItem);
+        return CartLineResponse.of(cartItemRepository.save(cartItem));
     }
 
     @Override
     public void removeFromCart(Long userId, Long productId) {
+        if (cartStore.isEnabled()) {
+            cartStore.remove(userId, productId);
+            return;
+        }
         cartItemRepository.removeItemFromCart(userId, productId);
     }
 
     @Override
     public void clearCart(Long userId) {
         cartItemRepository.clearUserCart(userId);
+        if (cartStore.isEnabled()) {
+            cartStore.clear(userId);
+        }
+    }
+
+    // Runs in the order transaction. Deleting the exact lines that were read makes checkout
+    // idempotent: a second submit of the same cart finds them gone and fails before it reserves
+    // anything, and lines added since stay in the cart.
+    @Override
+    public void removeCheckedOutItems(Long userId, List<CartItem> cartItems, LocalDateTime cartReadAt) {
+        List<Long> cartItemIds = cartItems.stream().map(CartItem::getId).toList();
+        if (cartItemRepository.deleteByIdIn(cartItemIds) != cartItemIds.size()) {
+            throw new RuntimeException("Cart has changed; please review it and try again");
+        }
+        if (cartStore.isEnabled()) {
+            cartStore.removeCheckedOut(userId,
+                    cartItems.stream().map(item -> item.getProduct().getId()).toList(), cartReadAt);
+        }
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CartItem> getCartItems(Long userId) {
+        // Entity readers (checkout, validation) need the store's pending edits in the table first,
+        // written in this transaction, so these reads are not read-only
+        cartStore.flush(userId);
         return cartItemRepository.findCartItemsByUserIdOrderByCreatedAt(userId);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public CartItem getCartItem(Long userId, Long productId) {
+        cartStore.flush(userId);
         return cartItemRepository.findByUserIdAndProductId(userId, productId).orElse(null);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CartSummaryResponse getCartView(Long userId) {
+        if (cartStore.isEnabled()) {
+            return cartStore.view(userId);
+        }
+        return new CartSummaryResponse(cartItemRepository.findCartView(userId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCartTotal(Long userId) {
-        List<CartItem> cartItems = getCartItems(userId);
-        return cartItems.stream()
-                .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getCartView(userId).getTotalAmount();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Integer getCartItemCount(Long userId) {
+        if (cartStore.isEnabled()) {
+            return cartStore.count(userId);
+        }
         return cartItemRepository.countCartItemsByUserId(userId).intValue();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Integer getTotalQuantity(Long userId) {
+        if (cartStore.isEnabled()) {
+            return cartStore.totalQuantity(userId);
+        }
         Integer total = cartItemRepository.getTotalQuantityByUserId(userId);
         return total != null ? total : 0;
     }
@@ -134,11 +184,13 @@ public class CartServiceImpl implements CartService {
     @Override
     @Transactional(readOnly = true)
     public boolean isProductInCart(Long userId, Long productId) {
+        if (cartStore.isEnabled()) {
+            return cartStore.contains(userId, productId);
+        }
         return cartItemRepository.existsByUserIdAndProductId(userId, productId);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean validateCartForCheckout(Long userId) {
         List<CartItem> cartItems = getCartItems(userId);
 
@@ -158,30 +210,19 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void removeExpiredCartItems() {
-        // Remove cart items older than 30 days
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
-        cartItemRepository.deleteOldCartItems(cutoffDate);
+        // Every chunk commits on its own, so no surrounding transaction; see ExpiredCartPurger
+        expiredCartPurger.purge();
     }
 
+    // Same set-based fix the background reconciler applies, for just this cart's products
     @Override
     public void syncCartWithInventory(Long userId) {
-        List<CartItem> cartItems = getCartItems(userId);
-
-        for (CartItem item : cartItems) {
-            if (!item.getProduct().getIsActive()) {
-                // Remove inactive products
-                cartItemRepository.delete(item);
-            } else if (!productService.canFulfillOrder(item.getProduct().getId(), item.getQuantity())) {
-                // Adjust quantity to available stock
-                Integer availableStock = item.getProduct().getQtyAvailable();
-                if (availableStock > 0) {
-                    item.setQuantity(availableStock);
-                    cartItemRepository.save(item);
-                } else {
-                    cartItemRepository.delete(item);
-                }
-            }
-        }
+        cartStore.flush(userId);
+        List<Long> productIds = cartItemRepository.findLinesByUserId(userId).stream()
+                .map(line -> (Long) line[0])
+                .toList();
+        cartStockReconciler.reconcile(productIds);
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.dto.CartProductView;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps carts in line with stock in the background: committed stock and product changes
+// queue their product id, a SKU that changes many times between drains is queued once, and
+// each drain fixes every affected cart line with a few set-based statements. Lines of
+// inactive or sold-out products are removed; the rest are capped at the sellable quantity.
+@Component
+public class CartStockReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStockReconciler.class);
+
+    private static final int BATCH_SIZE = 200;
+
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final CartStore cartStore;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong reconciledProducts = new AtomicLong();
+    private final AtomicLong removedLines = new AtomicLong();
+    private final AtomicLong cappedLines = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile long lastDrainAt;
+
+    public CartStockReconciler(CartItemRepository cartItemRepository,
+                               ProductRepository productRepository,
+                               CartStore cartStore,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.cartReconcileEnabled:true}") boolean enabled) {
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.cartStore = cartStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @Scheduled(initialDelayString = "${app.cartReconcileIntervalMs:1000}",
+            fixedDelayString = "${app.cartReconcileIntervalMs:1000}")
+    public void scheduledDrain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            logger.error("Cart stock reconciliation failed", e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        enqueue(event.productId());
+    }
+
+    // Covers deactivation and deletes, and stock moves seen through the products read model
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        enqueue(event.productId());
+    }
+
+    private void enqueue(Long productId) {
+        if (enabled) {
+            events.incrementAndGet();
+            pending.add(productId);
+        }
+    }
+
+    void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(pending.size());
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            productIds.add(it.next());
+            it.remove();
+        }
+
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+            try {
+                reconcile(batch);
+            } catch (RuntimeException e) {
+                // Retried with the next drain; the remaining batches still run
+                pending.addAll(batch);
+                failedBatches.incrementAndGet();
+                logger.warn("Cart stock reconciliation failed for {} products; retrying next drain", batch.size(), e);
+            }
+        }
+        lastDrainAt = System.currentTimeMillis();
+    }
+
+    // Returns the number of cart lines changed; joins the caller's transaction when there is one
+    public int reconcile(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> unavailable = new ArrayList<>();
+        Map<Long, Integer> caps = new HashMap<>();
+        int[] changed = transactionTemplate.execute(status -> {
+            // The statements read stock themselves, so a restock committed meanwhile is never
+            // judged on an older quantity
+            int removed = cartItemRepository.deleteUnavailableByProductIdIn(productIds);
+            int capped = cartItemRepository.capQuantityToStockByProductIdIn(productIds);
+            for (CartProductView product : productRepository.findCartViewsByIdIn(productIds)) {
+                if (!Boolean.TRUE.equals(product.active()) || product.availableQuantity() <= 0) {
+                    unavailable.add(product.id());
+                } else {
+                    caps.put(product.id(), product.availableQuantity());
+                }
+            }
+            return new int[]{removed, capped};
+        });
+        cartStore.reconcile(unavailable, caps);
+
+        reconciledProducts.addAndGet(productIds.size());
+        removedLines.addAndGet(changed[0]);
+        cappedLines.addAndGet(changed[1]);
+        return changed[0] + changed[1];
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("events", events.get());
+        stats.put("pendingProducts", pending.size());
+        stats.put("reconciledProducts", reconciledProducts.get());
+        stats.put("removedLines", removedLines.get());
+        stats.put("cappedLines", cappedLines.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("lastDrainAt", lastDrainAt);
+        return stats;
+    }
+}
@@ -0,0 +1,521 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.dto.CartLineResponse;
+import com.example.ecommerce.backend.dto.CartProductView;
+import com.example.ecommerce.backend.dto.CartSummaryResponse;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Optional write-behind cart store. Active carts live in memory keyed by user id and each edit
+// is a map update under that cart's monitor, checked against a short-lived cache of product
+// facts. Changed lines reach cart_items in JDBC batches every flush interval and on shutdown,
+// so a node that dies loses at most one interval of edits. A cart that is not in memory is
+// hydrated from cart_items on first access, which is also how carts come back after a restart.
+// Carts are node-local: with several nodes, requests must be routed to a node by user.
+@Component
+public class CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final String UPDATE_SQL = "UPDATE cart_items SET quantity = ? WHERE user_id = ? AND product_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity, created_at) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    private final ConcurrentHashMap<Long, Cart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Cache<Long, CartProductView> products;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long idleMs;
+
+    private final AtomicLong hydrations = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedLines = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private volatile long lastFlushAt;
+
+    public CartStore(CartItemRepository cartItemRepository,
+                     ProductRepository productRepository,
+                     JdbcTemplate jdbcTemplate,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.cartStoreEnabled:false}") boolean enabled,
+                     @Value("${app.cartStoreIdleMs:1800000}") long idleMs,
+                     @Value("${app.cartStoreProductTtlMs:30000}") long productTtlMs) {
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.idleMs = idleMs;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(Duration.ofMillis(productTtlMs))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CartLineResponse add(Long userId, Long productId, int quantity) {
+        CartProductView product = product(productId);
+        if (!Boolean.TRUE.equals(product.active())) {
+            throw new RuntimeException("Product is not available: " + product.title());
+        }
+
+        return edit(userId, cart -> {
+            Line existing = cart.lines.get(productId);
+            int newQuantity = existing != null ? existing.quantity() + quantity : quantity;
+            if (product.availableQuantity() < newQuantity) {
+                throw new RuntimeException(existing != null
+                        ? "Cannot add more items. Insufficient stock available."
+                        : "Insufficient stock available for product: " + product.title());
+            }
+            Line line = new Line(newQuantity, existing != null ? existing.createdAt() : LocalDateTime.now());
+            cart.put(productId, line);
+            return product.line(null, newQuantity, line.createdAt());
+        });
+    }
+
+    // Returns null when a non-positive quantity removed the line
+    public CartLineResponse update(Long userId, Long productId, int quantity) {
+        CartProductView product = quantity > 0 ? product(productId) : null;
+        return edit(userId, cart -> {
+            Line existing = cart.lines.get(productId);
+            if (existing == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+            if (product == null) {
+                cart.remove(productId);
+                return null;
+            }
+            if (product.availableQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock available");
+            }
+            cart.put(productId, new Line(quantity, existing.createdAt()));
+            return product.line(null, quantity, existing.createdAt());
+        });
+    }
+
+    public void remove(Long userId, Long productId) {
+        edit(userId, cart -> {
+            cart.remove(productId);
+            return null;
+        });
+    }
+
+    // The caller deletes the rows itself; the lines leave memory once that transaction commits
+    public void clear(Long userId) {
+        afterCommit(() -> edit(userId, cart -> {
+            new ArrayList<>(cart.lines.keySet()).forEach(cart::remove);
+            return null;
+        }));
+    }
+
+    // Checked-out lines leave memory once the order commits; a line re-added after the cart
+    // was read for checkout is newer than cartReadAt and stays
+    public void removeCheckedOut(Long userId, Collection<Long> productIds, LocalDateTime cartReadAt) {
+        afterCommit(() -> edit(userId, cart -> {
+            for (Long productId : productIds) {
+                Line line = cart.lines.get(productId);
+                if (line != null && !line.createdAt().isAfter(cartReadAt)) {
+                    cart.remove(productId);
+                }
+            }
+            return null;
+        }));
+    }
+
+    // Applies CartStockReconciler's decisions to carts held in memory; the changes are
+    // flushed like any other edit
+    public void reconcile(Collection<Long> unavailable, Map<Long, Integer> caps) {
+        if (!enabled) {
+            return;
+        }
+        carts.forEach((userId, cart) -> {
+            // Most carts hold none of these products; skip them without taking the monitor
+            if (!cart.holdsAny(unavailable) && !cart.holdsAny(caps.keySet())) {
+                return;
+            }
+            synchronized (cart) {
+                if (cart.evicted) {
+                    return;
+                }
+                unavailable.forEach(cart::remove);
+                caps.forEach((productId, cap) -> {
+                    Line line = cart.lines.get(productId);
+                    if (line != null && line.quantity() > cap) {
+                        cart.put(productId, new Line(cap, line.createdAt()));
+                    }
+                });
+                if (cart.isDirty()) {
+                    dirty.add(userId);
+                }
+            }
+        });
+    }
+
+    public CartSummaryResponse view(Long userId) {
+        Map<Long, Line> lines = read(userId, cart -> new LinkedHashMap<>(cart.lines));
+        Map<Long, CartProductView> views = products.getAll(lines.keySet(), this::loadProducts);
+
+        List<CartLineResponse> items = new ArrayList<>(lines.size());
+        lines.forEach((productId, line) -> {
+            CartProductView view = views.get(productId);
+            if (view != null) {
+                items.add(view.line(null, line.quantity(), line.createdAt()));
+            }
+        });
+        // Lines are kept oldest first; the cart page lists newest first
+        Collections.reverse(items);
+        return new CartSummaryResponse(items);
+    }
+
+    public int count(Long userId) {
+        return read(userId, cart -> cart.lines.size());
+    }
+
+    public int totalQuantity(Long userId) {
+        return read(userId, cart -> cart.lines.values().stream().mapToInt(Line::quantity).sum());
+    }
+
+    public boolean contains(Long userId, Long productId) {
+        return read(userId, cart -> cart.lines.containsKey(productId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidate(event.productId());
+    }
+
+    // The cached view carries the sellable quantity used to cap adds and updates
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        products.invalidate(event.productId());
+    }
+
+    @Scheduled(initialDelayString = "${app.cartStoreFlushIntervalMs:5000}",
+            fixedDelayString = "${app.cartStoreFlushIntervalMs:5000}")
+    public void scheduledFlush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flush();
+            evictIdle();
+        } catch (RuntimeException e) {
+            logger.error("Cart store flush failed; changes stay queued", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled && !dirty.isEmpty()) {
+            int lines = flush();
+            logger.info("Flushed {} cart lines on shutdown", lines);
+        }
+    }
+
+    public int flush() {
+        List<Long> userIds = new ArrayList<>(dirty);
+        int lines = 0;
+        for (int from = 0; from < userIds.size(); from += BATCH_SIZE) {
+            lines += write(userIds.subList(from, Math.min(from + BATCH_SIZE, userIds.size())));
+        }
+        lastFlushAt = System.currentTimeMillis();
+        return lines;
+    }
+
+    // Writes one user's pending lines now; joins the caller's transaction when there is one,
+    // and queues them again if that transaction rolls back
+    public int flush(Long userId) {
+        return enabled && dirty.contains(userId) ? write(List.of(userId)) : 0;
+    }
+
+    private int write(Collection<Long> userIds) {
+        List<Pending> pending = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            dirty.remove(userId);
+            Cart cart = carts.get(userId);
+            if (cart != null) {
+                synchronized (cart) {
+                    pending.add(cart.drain(userId));
+                }
+            }
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Pending p : pending) {
+            p.upserts().forEach((productId, line) -> {
+                updates.add(new Object[]{line.quantity(), p.userId(), productId});
+                inserts.add(new Object[]{p.userId(), productId, line.quantity(), Timestamp.valueOf(line.createdAt())});
+            });
+            p.deletes().forEach(productId -> deletes.add(new Object[]{p.userId(), productId}));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!deletes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+                }
+                if (!updates.isEmpty()) {
+                    // Lines the UPDATE did not match are new and get inserted
+                    int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                    List<Object[]> missing = new ArrayList<>();
+                    for (int i = 0; i < updated.length; i++) {
+                        if (updated[i] == 0) {
+                            missing.add(inserts.get(i));
+                        }
+                    }
+                    if (!missing.isEmpty()) {
+                        jdbcTemplate.batchUpdate(INSERT_SQL, missing);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            pending.forEach(this::requeue);
+            pending.forEach(this::written);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joined the caller's transaction: the rows only count once it commits. Until then
+            // the carts stay pinned against eviction so a rollback can put the lines back.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        flushFailures.incrementAndGet();
+                        pending.forEach(CartStore.this::requeue);
+                    }
+                    pending.forEach(CartStore.this::written);
+                }
+            });
+        } else {
+            pending.forEach(this::written);
+        }
+
+        flushes.incrementAndGet();
+        flushedLines.addAndGet(updates.size() + deletes.size());
+        return updates.size() + deletes.size();
+    }
+
+    private void requeue(Pending p) {
+        Cart cart = p.cart();
+        synchronized (cart) {
+            if (cart.evicted) {
+                return;
+            }
+            // Anything edited since the drain is already queued with its newer value
+            p.upserts().keySet().stream()
+                    .filter(productId -> cart.lines.containsKey(productId) && !cart.removed.contains(productId))
+                    .forEach(cart.changed::add);
+            p.deletes().stream()
+                    .filter(productId -> !cart.lines.containsKey(productId))
+                    .forEach(cart.removed::add);
+            dirty.add(p.userId());
+        }
+    }
+
+    private void written(Pending p) {
+        synchronized (p.cart()) {
+            p.cart().writing--;
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (cart.lastAccess < cutoff && !cart.isDirty() && cart.writing == 0 && !dirty.contains(userId)) {
+                    cart.evicted = true;
+                    carts.remove(userId, cart);
+                }
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("carts", carts.size());
+        stats.put("dirtyCarts", dirty.size());
+        stats.put("hydrations", hydrations.get());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedLines", flushedLines.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    private <T> T edit(Long userId, Function<Cart, T> change) {
+        while (true) {
+            Cart cart = cart(userId);
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                T result = change.apply(cart);
+                if (cart.isDirty()) {
+                    dirty.add(userId);
+                }
+                return result;
+            }
+        }
+    }
+
+    private <T> T read(Long userId, Function<Cart, T> query) {
+        Cart cart = cart(userId);
+        synchronized (cart) {
+            cart.lastAccess = System.currentTimeMillis();
+            return query.apply(cart);
+        }
+    }
+
+    // Hydrated outside the map so a slow load never blocks other users' carts
+    private Cart cart(Long userId) {
+        Cart cart = carts.get(userId);
+        if (cart != null) {
+            return cart;
+        }
+
+        Cart loaded = new Cart();
+        for (Object[] row : cartItemRepository.findLinesByUserId(userId)) {
+            loaded.load((Long) row[0], new Line((Integer) row[1], (LocalDateTime) row[2]));
+        }
+        hydrations.incrementAndGet();
+        Cart existing = carts.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private CartProductView product(Long productId) {
+        CartProductView product = products.get(productId,
+                id -> productRepository.findCartViewsByIdIn(List.of(id)).stream().findFirst().orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return product;
+    }
+
+    private Map<Long, CartProductView> loadProducts(Set<? extends Long> productIds) {
+        Map<Long, CartProductView> views = new HashMap<>();
+        for (CartProductView view : productRepository.findCartViewsByIdIn(new ArrayList<>(productIds))) {
+            views.put(view.id(), view);
+        }
+        return views;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Line(int quantity, LocalDateTime createdAt) {
+    }
+
+    private record Pending(Long userId, Cart cart, Map<Long, Line> upserts, Set<Long> deletes) {
+    }
+
+    // Guarded by its own monitor. changed/removed are the product ids not yet written;
+    // productIds mirrors the keys of lines and may be read without the monitor.
+    private static final class Cart {
+
+        private final Map<Long, Line> lines = new LinkedHashMap<>();
+        private final Set<Long> productIds = ConcurrentHashMap.newKeySet();
+        private final Set<Long> changed = new HashSet<>();
+        private final Set<Long> removed = new HashSet<>();
+        private long lastAccess = System.currentTimeMillis();
+        private int writing;
+        private boolean evicted;
+
+        void load(Long productId, Line line) {
+            lines.put(productId, line);
+            productIds.add(productId);
+        }
+
+        void put(Long productId, Line line) {
+            lines.put(productId, line);
+            productIds.add(productId);
+            changed.add(productId);
+            removed.remove(productId);
+        }
+
+        void remove(Long productId) {
+            if (lines.remove(productId) != null) {
+                productIds.remove(productId);
+                changed.remove(productId);
+                removed.add(productId);
+            }
+        }
+
+        boolean holdsAny(Collection<Long> candidates) {
+            for (Long productId : candidates) {
+                if (productIds.contains(productId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isDirty() {
+            return !changed.isEmpty() || !removed.isEmpty();
+        }
+
+        Pending drain(Long userId) {
+            Map<Long, Line> upserts = new HashMap<>();
+            changed.forEach(productId -> upserts.put(productId, lines.get(productId)));
+            Pending pending = new Pending(userId, this, upserts, new HashSet<>(removed));
+            changed.clear();
+            removed.clear();
+            writing++;
+            return pending;
+        }
+    }
+}
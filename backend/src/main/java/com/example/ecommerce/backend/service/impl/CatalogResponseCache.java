@@ -0,0 +1,136 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Final JSON bytes of public catalog listings keyed by a normalized request key. An entry
+// is served while the catalog version it was built at is still current; a hit copies the
+// cached bytes straight to the servlet output stream, and a matching If-None-Match gets
+// a bodiless 304.
+@Component
+public class CatalogResponseCache {
+
+    private final Cache<String, Entry> cache;
+    private final Map<String, byte[]> prefixes = new ConcurrentHashMap<>();
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public CatalogResponseCache(CatalogVersion catalogVersion,
+                                ObjectMapper objectMapper,
+                                @Value("${app.catalogResponseCacheEnabled:true}") boolean enabled,
+                                @Value("${app.catalogResponseCacheMaxBytes:67108864}") long maximumBytes) {
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, Entry entry) -> key.length() + entry.data().length)
+                .recordStats()
+                .build();
+    }
+
+    // The loader builds the ApiResponse data object and only runs on a miss or after a
+    // catalog change. Exceptions it throws reach the caller before anything is written.
+    public void write(String key, String message, Supplier<?> loader,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Entry entry = lookup(key, loader);
+
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] prefix = prefixes.computeIfAbsent(message, m -> JsonEnvelope.prefix(objectMapper, m));
+        byte[] suffix = JsonEnvelope.suffix();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(prefix.length + entry.data().length + suffix.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        out.write(entry.data());
+        out.write(suffix);
+        out.flush();
+    }
+
+    private Entry lookup(String key, Supplier<?> loader) {
+        // Read the version before loading: if a write lands mid-load the entry is already
+        // stale and the next request rebuilds it
+        long version = catalogVersion.current();
+        Entry entry = enabled ? cache.getIfPresent(key) : null;
+        if (entry != null && entry.version() == version) {
+            return entry;
+        }
+
+        byte[] data = serialize(loader.get());
+        entry = new Entry(version, data, etag(data));
+        if (enabled) {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize catalog response", e);
+        }
+    }
+
+    // Weak because the envelope timestamp differs between otherwise identical responses
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private record Entry(long version, byte[] data, String etag) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ecommerce.backend.service.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic counter bumped by every product write. Cached catalog listings remember the
+// version they were built at and are rebuilt once it moves on.
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    // Bumped again after commit so a listing built from pre-commit rows is never kept
+    public void bump() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.JobCheckpoint;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.JobCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Deletes expired cart lines in id-range chunks, each its own short transaction, pausing
+// between chunks so replication and other writers keep up. Ids do not follow created_at (the
+// cart store inserts lines with the time they were first added), so every run starts from
+// the lowest expired id. The checkpoint only lets a run that was cut short resume where it
+// stopped; a completed run resets it to 0. A lease on the checkpoint row keeps the purge to
+// one node at a time.
+@Component
+public class ExpiredCartPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredCartPurger.class);
+
+    static final String JOB_NAME = "expired-cart-purge";
+
+    private final CartItemRepository cartItemRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long leaseMs;
+    private final String owner = UUID.randomUUID().toString();
+    private final ExecutorService purgeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private volatile long lastRunDeleted;
+    private volatile long lastRunMs;
+    private volatile double lastRowsPerSecond;
+    private volatile long lastRunAt;
+
+    public ExpiredCartPurger(CartItemRepository cartItemRepository,
+                             JobCheckpointRepository checkpointRepository,
+                             @Value("${app.cartRetentionDays:30}") int retentionDays,
+                             @Value("${app.cartPurgeChunkSize:1000}") int chunkSize,
+                             @Value("${app.cartPurgePauseMs:200}") long pauseMs,
+                             @Value("${app.cartPurgeLeaseMs:300000}") long leaseMs) {
+        this.cartItemRepository = cartItemRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.leaseMs = leaseMs;
+    }
+
+    // Runs on its own thread so the pauses never hold up the shared scheduler
+    @Scheduled(initialDelayString = "${app.cartPurgeIntervalMs:3600000}",
+            fixedDelayString = "${app.cartPurgeIntervalMs:3600000}")
+    public void schedulePurge() {
+        purgeExecutor.execute(() -> {
+            try {
+                purge();
+            } catch (RuntimeException e) {
+                logger.error("Expired cart purge failed; it resumes from the last checkpoint", e);
+            }
+        });
+    }
+
+    // Returns the number of lines deleted, or 0 when another run holds the lease
+    public long purge() {
+        if (!running.compareAndSet(false, true)) {
+            skipped.incrementAndGet();
+            return 0;
+        }
+        try {
+            return purgeUnderLease();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long purgeUnderLease() {
+        ensureCheckpoint();
+        if (checkpointRepository.acquireLease(JOB_NAME, owner, LocalDateTime.now(), leaseDeadline()) == 0) {
+            skipped.incrementAndGet();
+            return 0;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long deleted = 0;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            Long first = cartItemRepository.findFirstExpiredId(cutoff);
+            Long last = cartItemRepository.findLastExpiredId(cutoff);
+            long position = checkpointRepository.findById(JOB_NAME).map(JobCheckpoint::getPosition).orElse(0L);
+
+            boolean completed = true;
+            if (first != null) {
+                // position is 0 unless the previous run was cut short
+                long from = Math.max(position, first);
+                while (from <= last) {
+                    long to = from + chunkSize;
+                    deleted += cartItemRepository.deleteExpiredInRange(from, to, cutoff);
+                    chunks.incrementAndGet();
+                    // Never past the last expired id: younger lines in the final chunk expire later
+                    long reached = Math.min(to, last + 1);
+                    if (checkpointRepository.advance(JOB_NAME, owner, reached, LocalDateTime.now(), leaseDeadline()) == 0) {
+                        logger.warn("Lost the cart purge lease at id {}; stopping", to);
+                        completed = false;
+                        break;
+                    }
+                    from = to;
+                    if (from <= last) {
+                        pause();
+                    }
+                }
+            }
+            if (completed) {
+                checkpointRepository.advance(JOB_NAME, owner, 0L, LocalDateTime.now(), leaseDeadline());
+            }
+        } finally {
+            checkpointRepository.releaseLease(JOB_NAME, owner);
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - startedAt);
+        runs.incrementAndGet();
+        purged.addAndGet(deleted);
+        lastRunDeleted = deleted;
+        lastRunMs = elapsed;
+        lastRowsPerSecond = deleted * 1000.0 / elapsed;
+        lastRunAt = System.currentTimeMillis();
+        if (deleted > 0) {
+            logger.info("Purged {} expired cart lines in {} ms", deleted, elapsed);
+        }
+        return deleted;
+    }
+
+    private void ensureCheckpoint() {
+        if (checkpointRepository.existsById(JOB_NAME)) {
+            return;
+        }
+        try {
+            checkpointRepository.save(new JobCheckpoint(JOB_NAME));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created it first
+        }
+    }
+
+    private LocalDateTime leaseDeadline() {
+        return LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Expired cart purge interrupted", e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("runs", runs.get());
+        stats.put("skippedRuns", skipped.get());
+        stats.put("chunks", chunks.get());
+        stats.put("totalDeleted", purged.get());
+        stats.put("lastRunDeleted", lastRunDeleted);
+        stats.put("lastRunMs", lastRunMs);
+        stats.put("lastRowsPerSecond", lastRowsPerSecond);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("checkpoint", checkpointRepository.findById(JOB_NAME).map(JobCheckpoint::getPosition).orElse(0L));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purgeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.InventoryMovementType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Appends stock movements to inventory_movements. Entries recorded inside a transaction are
+// buffered and written in one JDBC batch just before it commits, so they land or roll back
+// together with the inventory change they describe.
+@Component
+public class InventoryJournal {
+
+    private static final String INSERT_SQL = "INSERT INTO inventory_movements " +
+            "(product_id, type, available_delta, reserved_delta, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public InventoryJournal(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(Long productId, InventoryMovementType type, int availableDelta, int reservedDelta) {
+        if (availableDelta == 0 && reservedDelta == 0) {
+            return;
+        }
+
+        Object[] row = {productId, type.name(), availableDelta, reservedDelta, Timestamp.valueOf(LocalDateTime.now())};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(row));
+            return;
+        }
+
+        PendingMovements pending = (PendingMovements) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingMovements();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.rows.add(row);
+    }
+
+    private void write(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        appended.addAndGet(rows.size());
+        batches.incrementAndGet();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("appended", appended.get());
+        stats.put("batches", batches.get());
+        return stats;
+    }
+
+    private class PendingMovements implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!rows.isEmpty()) {
+                write(rows);
+                rows.clear();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InventoryJournal.this);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventorySnapshot;
+import com.example.ecommerce.backend.repository.InventoryMovementRepository;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import com.example.ecommerce.backend.repository.InventorySnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Compacts the movement journal into per-product snapshots and rebuilds balances from them.
+// Inventory rows stay the balance that reservations check against; the ledger is the history
+// behind them and the source for verifying or restoring them.
+@Component
+@Transactional
+public class InventoryLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final InventoryMovementRepository movementRepository;
+    private final InventorySnapshotRepository snapshotRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryManager inventoryManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final long settleMs;
+
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong pruned = new AtomicLong();
+    private volatile long lastFolded;
+    private volatile long lastCompactedAt;
+
+    public InventoryLedger(InventoryMovementRepository movementRepository,
+                           InventorySnapshotRepository snapshotRepository,
+                           InventoryRepository inventoryRepository,
+                           InventoryManager inventoryManager,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.inventorySnapshotEnabled:true}") boolean enabled,
+                           @Value("${app.inventoryJournalRetentionDays:90}") int retentionDays,
+                           @Value("${app.inventoryJournalSettleMs:60000}") long settleMs) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryManager = inventoryManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.settleMs = settleMs;
+    }
+
+    // Stock that existed before the journal has no movements; start it from the current rows.
+    // Runs against live traffic, so each page is seeded in its own transaction under row locks.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void seedSnapshots() {
+        if (!enabled || snapshotRepository.count() > 0) {
+            return;
+        }
+
+        int seeded = 0;
+        List<Object[]> balances;
+        int page = 0;
+        do {
+            balances = inventoryRepository.findBalances(PageRequest.of(page++, BATCH_SIZE));
+            List<Long> productIds = balances.stream().map(balance -> (Long) balance[0]).toList();
+            if (!productIds.isEmpty()) {
+                seeded += transactionTemplate.execute(status -> seedLocked(productIds));
+            }
+        } while (balances.size() == BATCH_SIZE);
+
+        logger.info("Seeded {} inventory snapshots from current stock", seeded);
+    }
+
+    // Holding the row locks, no movement of these products is in flight: every earlier one has
+    // committed at or below the last id read here, and every later one gets a higher id
+    private int seedLocked(List<Long> productIds) {
+        List<Inventory> rows = inventoryRepository.findAndLockByProductIds(productIds);
+        Long lastMovementId = movementRepository.findLastMovementId();
+        LocalDateTime now = LocalDateTime.now();
+        List<InventorySnapshot> snapshots = new ArrayList<>(rows.size());
+        for (Inventory row : rows) {
+            snapshots.add(snapshot(row.getProduct().getId(), row.getQtyAvailable(), row.getQtyReserved(),
+                    lastMovementId != null ? lastMovementId : 0L, now));
+        }
+        snapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    @Scheduled(initialDelayString = "${app.inventorySnapshotIntervalMs:300000}",
+            fixedDelayString = "${app.inventorySnapshotIntervalMs:300000}")
+    public void scheduledCompact() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            logger.error("Inventory journal compaction failed", e);
+        }
+    }
+
+    // Folds settled movements into snapshots, then drops folded movements past the retention.
+    // Ids are assigned at insert but become visible at commit, so only entries older than the
+    // settle window are folded; a younger one could still have a lower-id sibling in flight.
+    public int compact() {
+        LocalDateTime now = LocalDateTime.now();
+        Long watermark = movementRepository.findSettledMovementId(now.minusNanos(settleMs * 1_000_000));
+        int folded = 0;
+        if (watermark != null) {
+            Map<Long, int[]> tail = sumTail(watermark);
+            Map<Long, InventorySnapshot> snapshots = snapshotRepository.findAllById(tail.keySet()).stream()
+                    .collect(Collectors.toMap(InventorySnapshot::getProductId, Function.identity()));
+
+            List<InventorySnapshot> created = new ArrayList<>();
+            for (Map.Entry<Long, int[]> entry : tail.entrySet()) {
+                int[] delta = entry.getValue();
+                InventorySnapshot current = snapshots.get(entry.getKey());
+                if (current == null) {
+                    created.add(snapshot(entry.getKey(), delta[0], delta[1], watermark, now));
+                } else {
+                    current.setQtyAvailable(current.getQtyAvailable() + delta[0]);
+                    current.setQtyReserved(current.getQtyReserved() + delta[1]);
+                    current.setLastMovementId(watermark);
+                    current.setTakenAt(now);
+                }
+            }
+            snapshotRepository.saveAll(created);
+            // Prune below must see the new watermarks
+            snapshotRepository.flush();
+            folded = tail.size();
+        }
+
+        long removed = 0;
+        List<Long> ids;
+        do {
+            ids = movementRepository.findCompactedBefore(now.minusDays(retentionDays), PageRequest.of(0, BATCH_SIZE));
+            if (!ids.isEmpty()) {
+                movementRepository.deleteAllByIdInBatch(ids);
+                removed += ids.size();
+            }
+        } while (ids.size() == BATCH_SIZE);
+
+        compactions.incrementAndGet();
+        pruned.addAndGet(removed);
+        lastFolded = folded;
+        lastCompactedAt = System.currentTimeMillis();
+        return folded;
+    }
+
+    // Balance per product as [qtyAvailable, qtyReserved]: last snapshot plus the whole journal tail
+    @Transactional(readOnly = true)
+    public Map<Long, int[]> rebuildBalances() {
+        Map<Long, int[]> balances = new HashMap<>();
+        for (InventorySnapshot snapshot : snapshotRepository.findAll()) {
+            balances.put(snapshot.getProductId(), new int[]{snapshot.getQtyAvailable(), snapshot.getQtyReserved()});
+        }
+        sumTail(Long.MAX_VALUE).forEach((productId, delta) -> balances.merge(productId, delta,
+                (balance, tail) -> new int[]{balance[0] + tail[0], balance[1] + tail[1]}));
+        return balances;
+    }
+
+    // Products whose inventory row disagrees with the ledger, keyed by product id
+    @Transactional(readOnly = true)
+    public Map<Long, Map<String, Integer>> verify() {
+        Map<Long, int[]> balances = rebuildBalances();
+        Map<Long, Map<String, Integer>> mismatches = new LinkedHashMap<>();
+        List<Object[]> rows;
+        int page = 0;
+        do {
+            rows = inventoryRepository.findBalances(PageRequest.of(page++, BATCH_SIZE));
+            for (Object[] row : rows) {
+                int[] expected = balances.getOrDefault((Long) row[0], new int[2]);
+                if (expected[0] != (Integer) row[1] || expected[1] != (Integer) row[2]) {
+                    Map<String, Integer> mismatch = new LinkedHashMap<>();
+                    mismatch.put("qtyAvailable", (Integer) row[1]);
+                    mismatch.put("qtyReserved", (Integer) row[2]);
+                    mismatch.put("ledgerQtyAvailable", expected[0]);
+                    mismatch.put("ledgerQtyReserved", expected[1]);
+                    mismatches.put((Long) row[0], mismatch);
+                }
+            }
+        } while (rows.size() == BATCH_SIZE);
+        return mismatches;
+    }
+
+    // Recovery: overwrite drifted inventory rows with the rebuilt balances. verify() reads
+    // without locks, so it only nominates products; each is checked again under its row lock.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int restore() {
+        List<Long> candidates = new ArrayList<>(verify().keySet());
+        int restored = 0;
+        for (int from = 0; from < candidates.size(); from += BATCH_SIZE) {
+            List<Long> batch = candidates.subList(from, Math.min(from + BATCH_SIZE, candidates.size()));
+            restored += transactionTemplate.execute(status -> restoreLocked(batch));
+        }
+        if (restored > 0) {
+            logger.warn("Restored inventory balances of {} products from the ledger", restored);
+        }
+        return restored;
+    }
+
+    // Rows are locked in product id order, as reservations lock them, and the ledger is read
+    // after the lock so it includes every movement committed against them
+    private int restoreLocked(List<Long> productIds) {
+        List<Inventory> rows = inventoryRepository.findAndLockByProductIds(productIds);
+        Map<Long, int[]> balances = new HashMap<>();
+        for (InventorySnapshot snapshot : snapshotRepository.findAllById(productIds)) {
+            balances.put(snapshot.getProductId(), new int[]{snapshot.getQtyAvailable(), snapshot.getQtyReserved()});
+        }
+        for (Object[] row : movementRepository.sumDeltasAfterSnapshotsFor(productIds)) {
+            int[] balance = balances.computeIfAbsent((Long) row[0], id -> new int[2]);
+            balance[0] += ((Number) row[1]).intValue();
+            balance[1] += ((Number) row[2]).intValue();
+        }
+
+        int restored = 0;
+        for (Inventory row : rows) {
+            Long productId = row.getProduct().getId();
+            int[] expected = balances.getOrDefault(productId, new int[2]);
+            if (expected[0] != row.getQtyAvailable() || expected[1] != row.getQtyReserved()) {
+                row.setQtyAvailable(expected[0]);
+                row.setQtyReserved(expected[1]);
+                inventoryManager.stockChanged(productId);
+                restored++;
+            }
+        }
+        return restored;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("compactions", compactions.get());
+        stats.put("lastFolded", lastFolded);
+        stats.put("totalPruned", pruned.get());
+        stats.put("lastCompactedAt", lastCompactedAt);
+        return stats;
+    }
+
+    private Map<Long, int[]> sumTail(Long upTo) {
+        Map<Long, int[]> tail = new HashMap<>();
+        for (Object[] row : movementRepository.sumDeltasAfterSnapshots(upTo)) {
+            tail.put((Long) row[0], new int[]{((Number) row[1]).intValue(), ((Number) row[2]).intValue()});
+        }
+        return tail;
+    }
+
+    private static InventorySnapshot snapshot(Long productId, int available, int reserved,
+                                              Long lastMovementId, LocalDateTime takenAt) {
+        InventorySnapshot snapshot = new InventorySnapshot();
+        snapshot.setProductId(productId);
+        snapshot.setQtyAvailable(available);
+        snapshot.setQtyReserved(reserved);
+        snapshot.setLastMovementId(lastMovementId);
+        snapshot.setTakenAt(takenAt);
+        return snapshot;
+    }
+}
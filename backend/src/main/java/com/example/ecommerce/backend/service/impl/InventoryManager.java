@@ -1,13 +1,17 @@
 package com.example.ecommerce.backend.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.example.ecommerce.backend.repository.InventoryRepository;
 import com.example.ecommerce.backend.repository.ProductRepository;
 import com.example.ecommerce.backend.model.Product;
 import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventoryMovementType;
 
+// Inventory is the only stock write target. products.qty_available is a read model that
+// ProductStockProjector refreshes after commit from the StockChangedEvent published here.
 @Service
 @Transactional
 @RequiredArgsConstructor
@@ -15,25 +19,27 @@ public class InventoryManager {
 
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryJournal inventoryJournal;
 
-    public void syncProductAndInventoryStock(Long productId, Integer quantity) {
-        // Update both product and inventory in sync
-        updateProductStock(productId, quantity);
-        updateInventoryStock(productId, quantity);
-    }
-
-    private void updateProductStock(Long productId, Integer quantity) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        product.setQtyAvailable(quantity);
-        productRepository.save(product);
-    }
+    public Inventory updateStock(Long productId, Integer quantity) {
+        if (quantity == null || quantity < 0) {
+            throw new RuntimeException("Stock quantity cannot be negative");
+        }
 
-    private void updateInventoryStock(Long productId, Integer quantity) {
         Inventory inventory = inventoryRepository.findByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found"));
+                .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
+        int previous = inventory.getQtyAvailable();
         inventory.setQtyAvailable(quantity);
-        inventoryRepository.save(inventory);
+        Inventory updatedInventory = inventoryRepository.save(inventory);
+
+        inventoryJournal.record(productId, InventoryMovementType.ADJUST, quantity - previous, 0);
+        stockChanged(productId);
+        return updatedInventory;
+    }
+
+    public void stockChanged(Long productId) {
+        eventPublisher.publishEvent(new StockChangedEvent(productId));
     }
 
     public void createInventoryForNewProduct(Long productId, Integer initialQuantity) {
@@ -51,5 +57,6 @@ public class InventoryManager {
         inventory.setReorderLevel(10);
 
         inventoryRepository.save(inventory);
+        inventoryJournal.record(productId, InventoryMovementType.ADD, inventory.getQtyAvailable(), 0);
     }
-}
\ No newline at end of file
+}
@@ -3,17 +3,25 @@ package com.example.ecommerce.backend.service.impl;
 import com.example.ecommerce.backend.dto.InventoryResponse;
 import com.example.ecommerce.backend.dto.InventoryUpdateRequest;
 import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventoryMovement;
+import com.example.ecommerce.backend.model.InventoryMovementType;
+import com.example.ecommerce.backend.repository.InventoryMovementRepository;
 import com.example.ecommerce.backend.repository.InventoryRepository;
 import com.example.ecommerce.backend.repository.ProductRepository;
 import com.example.ecommerce.backend.service.InventoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -24,6 +32,9 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryRepository inventoryRepository;
     private final InventoryManager inventoryManager;
     private final ProductRepository productRepository;
+    private final StockReservationEngine stockReservationEngine;
+    private final InventoryJournal inventoryJournal;
+    private final InventoryMovementRepository inventoryMovementRepository;
 
     @Override
     @Transactional(readOnly = true)
@@ -36,6 +47,7 @@ public class InventoryServiceImpl implements InventoryService {
         Inventory inventory = inventoryRepository.findByProductId(productId)
                 .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
 
+        int previous = inventory.getQtyAvailable();
         if (request.getQtyAvailable() != null) {
             inventory.setQtyAvailable(request.getQtyAvailable());
         }
@@ -48,27 +60,17 @@ public class InventoryServiceImpl implements InventoryService {
 
         Inventory updatedInventory = inventoryRepository.save(inventory);
 
-        inventoryManager.syncProductAndInventoryStock(updatedInventory.getProduct().getId(), updatedInventory.getQtyAvailable());
+        if (request.getQtyAvailable() != null) {
+            inventoryJournal.record(productId, InventoryMovementType.ADJUST, request.getQtyAvailable() - previous, 0);
+            inventoryManager.stockChanged(productId);
+        }
 
         return new InventoryResponse(updatedInventory);
     }
 
     @Override
     public Inventory updateStock(Long productId, Integer quantity) {
-        if (quantity < 0) {
-            throw new RuntimeException("Stock quantity cannot be negative");
-        }
-
-        Inventory inventory = getInventoryByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
-
-        inventory.setQtyAvailable(quantity);
-        Inventory updatedInventory = inventoryRepository.save(inventory);
-
-        // Update product quantity as well
-        inventoryManager.syncProductAndInventoryStock(productId, quantity);
-
-        return updatedInventory;
+        return inventoryManager.updateStock(productId, quantity);
     }
 
     @Override
@@ -84,7 +86,8 @@ public class InventoryServiceImpl implements InventoryService {
         inventory.setQtyAvailable(newQuantity);
         Inventory updatedInventory = inventoryRepository.save(inventory);
 
-        inventoryManager.syncProductAndInventoryStock(productId, newQuantity);
+        inventoryJournal.record(productId, InventoryMovementType.ADD, quantity, 0);
+        inventoryManager.stockChanged(productId);
         return updatedInventory;
     }
 
@@ -106,45 +109,30 @@ public class InventoryServiceImpl implements InventoryService {
         inventory.setQtyAvailable(newQuantity);
         Inventory updatedInventory = inventoryRepository.save(inventory);
 
-        // update product quantity
-        inventoryManager.syncProductAndInventoryStock(productId, newQuantity);
+        inventoryJournal.record(productId, InventoryMovementType.REDUCE, -quantity, 0);
+        inventoryManager.stockChanged(productId);
 
         return updatedInventory;
     }
 
     @Override
-    public Inventory reserveStock(Long productId, Integer quantity) {
-        if (quantity <= 0) {
-            throw new RuntimeException("Quantity to reserve must be positive");
-        }
-
-        Inventory inventory = getInventoryByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
-
-        if (!canFulfillOrder(productId, quantity)) {
-            throw new RuntimeException("Cannot reserve stock. Insufficient available quantity.");
-        }
-
-        inventory.setQtyReserved(inventory.getQtyReserved() + quantity);
-        return inventoryRepository.save(inventory);
+    public void reserveStock(Long productId, Integer quantity) {
+        stockReservationEngine.reserve(productId, quantity);
     }
 
     @Override
-    public Inventory releaseReservedStock(Long productId, Integer quantity) {
-        if (quantity <= 0) {
-            throw new RuntimeException("Quantity to release must be positive");
-        }
-
-        Inventory inventory = getInventoryByProductId(productId)
-                .orElseThrow(() -> new RuntimeException("Inventory not found for product: " + productId));
+    public void reserveStock(Map<Long, Integer> quantitiesByProductId) {
+        stockReservationEngine.reserveBatch(quantitiesByProductId);
+    }
 
-        if (inventory.getQtyReserved() < quantity) {
-            throw new RuntimeException("Cannot release more than reserved. Reserved: " +
-                    inventory.getQtyReserved() + ", Requested: " + quantity);
-        }
+    @Override
+    public void releaseReservedStock(Long productId, Integer quantity) {
+        stockReservationEngine.release(productId, quantity);
+    }
 
-        inventory.setQtyReserved(inventory.getQtyReserved() - quantity);
-        return inventoryRepository.save(inventory);
+    @Override
+    public void releaseReservedStock(Map<Long, Integer> quantitiesByProductId) {
+        stockReservationEngine.releaseAll(quantitiesByProductId);
     }
 
     @Override
@@ -267,9 +255,27 @@ public class InventoryServiceImpl implements InventoryService {
         return inventoryRepository.findRecentlyUpdatedInventory(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Inventory> getRecentlyUpdatedInventory(ScrollPosition position, Sort sort, int size) {
+        return inventoryRepository.findAllBy(position, sort, Limit.of(size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long countAllInventory() {
+        return inventoryRepository.count();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Object[]> getInventorySnapshot(Pageable pageable) {
         return inventoryRepository.getInventorySnapshot(pageable);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<InventoryMovement> getMovements(Long productId, Pageable pageable) {
+        return inventoryMovementRepository.findByProductIdOrderByIdDesc(productId, pageable);
+    }
 }
\ No newline at end of file
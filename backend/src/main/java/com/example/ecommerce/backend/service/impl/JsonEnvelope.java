@@ -0,0 +1,29 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+// Byte-level pieces of a successful ApiResponse, in the same field order Jackson writes,
+// so pre-serialized data can be framed without re-serializing it
+final class JsonEnvelope {
+
+    private JsonEnvelope() {
+    }
+
+    static byte[] prefix(ObjectMapper objectMapper, String message) {
+        try {
+            return ("{\"message\":" + objectMapper.writeValueAsString(message) + ",\"data\":")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize message " + message, e);
+        }
+    }
+
+    // The timestamp is per response, so it is never part of what gets cached
+    static byte[] suffix() {
+        return (",\"success\":true,\"timestamp\":" + System.currentTimeMillis() + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
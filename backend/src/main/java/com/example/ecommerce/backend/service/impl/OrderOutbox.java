@@ -0,0 +1,250 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Order;
+import com.example.ecommerce.backend.model.OrderItem;
+import com.example.ecommerce.backend.model.OrderOutboxEvent;
+import com.example.ecommerce.backend.model.OrderOutboxTask;
+import com.example.ecommerce.backend.model.SalesTotal;
+import com.example.ecommerce.backend.repository.OrderOutboxRepository;
+import com.example.ecommerce.backend.repository.OrderRepository;
+import com.example.ecommerce.backend.repository.SalesTotalRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs the side effects of placing an order (notifications, sales counters) off the request
+// thread. Tasks are written to order_outbox in the order's transaction and handed to a worker
+// once it commits; a poller picks up anything that was missed (crash, shutdown, another node)
+// or failed. Each task is marked done in its own transaction, so its database writes happen
+// exactly once; anything else it does (the notification log lines) may repeat.
+@Component
+public class OrderOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderOutbox.class);
+
+    private static final int BATCH_SIZE = 100;
+    private static final long MAX_RETRY_DELAY_MS = 3_600_000;
+
+    private final OrderOutboxRepository outboxRepository;
+    private final OrderRepository orderRepository;
+    private final SalesTotalRepository salesTotalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long claimMs;
+    private final long retryMs;
+    private final int retentionDays;
+    private final ExecutorService outboxExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean pollQueued = new AtomicBoolean();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong polledUp = new AtomicLong();
+    private volatile long lastLagMs;
+
+    public OrderOutbox(OrderOutboxRepository outboxRepository,
+                       OrderRepository orderRepository,
+                       SalesTotalRepository salesTotalRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.orderOutboxClaimMs:60000}") long claimMs,
+                       @Value("${app.orderOutboxRetryMs:5000}") long retryMs,
+                       @Value("${app.orderOutboxRetentionDays:7}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.orderRepository = orderRepository;
+        this.salesTotalRepository = salesTotalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimMs = claimMs;
+        this.retryMs = retryMs;
+        this.retentionDays = retentionDays;
+    }
+
+    // Must run inside the transaction that inserts the order
+    public void enqueue(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> events = new ArrayList<>();
+        for (OrderOutboxTask task : OrderOutboxTask.values()) {
+            events.add(new OrderOutboxEvent(order, task, now));
+        }
+        List<Long> ids = outboxRepository.saveAll(events).stream().map(OrderOutboxEvent::getId).toList();
+        enqueued.addAndGet(ids.size());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(ids);
+                }
+            });
+        } else {
+            submit(ids);
+        }
+    }
+
+    private void submit(List<Long> ids) {
+        try {
+            outboxExecutor.execute(() -> process(ids));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the poller on this or another node runs them later
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.orderOutboxPollMs:5000}", fixedDelayString = "${app.orderOutboxPollMs:5000}")
+    public void schedulePoll() {
+        if (!pollQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            outboxExecutor.execute(() -> {
+                pollQueued.set(false);
+                try {
+                    polledUp.addAndGet(poll());
+                } catch (RuntimeException e) {
+                    logger.error("Order outbox poll failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pollQueued.set(false);
+        }
+    }
+
+    // Runs every due task; returns how many were processed
+    int poll() {
+        int done = 0;
+        List<Long> ids;
+        do {
+            ids = outboxRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            done += process(ids);
+        } while (ids.size() == BATCH_SIZE);
+        return done;
+    }
+
+    int process(List<Long> ids) {
+        int done = 0;
+        for (Long id : ids) {
+            LocalDateTime now = LocalDateTime.now();
+            if (outboxRepository.claim(id, now, now.plusNanos(claimMs * 1_000_000)) == 0) {
+                continue;
+            }
+            OrderOutboxEvent event = outboxRepository.findById(id).orElse(null);
+            if (event == null) {
+                continue;
+            }
+            try {
+                if (!run(event)) {
+                    // Another worker whose claim had run out finished it first
+                    continue;
+                }
+                processed.incrementAndGet();
+                lastLagMs = Duration.between(event.getCreatedAt(), LocalDateTime.now()).toMillis();
+                done++;
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                long delay = Math.min(MAX_RETRY_DELAY_MS, retryMs << Math.min(event.getAttempts() - 1, 20));
+                String error = String.valueOf(e.getMessage());
+                outboxRepository.markFailed(id, LocalDateTime.now().plusNanos(delay * 1_000_000),
+                        error.substring(0, Math.min(500, error.length())));
+                logger.warn("Order outbox task {} for order {} failed (attempt {}); retrying in {} ms",
+                        event.getTask(), event.getOrderId(), event.getAttempts(), delay, e);
+            }
+        }
+        return done;
+    }
+
+    // Runs the task and marks it done in one transaction; false when it was already done
+    private boolean run(OrderOutboxEvent event) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Order order = orderRepository.findWithDetailsById(event.getOrderId()).orElse(null);
+            // A deleted order leaves nothing to do
+            if (order != null) {
+                switch (event.getTask()) {
+                    case CONFIRMATION_EMAIL -> sendConfirmationEmail(order);
+                    case NEW_ORDER_ALERT -> notifyNewOrder(order);
+                    case SALES_COUNTERS -> countSale(order);
+                }
+            }
+            if (outboxRepository.markProcessed(event.getId(), LocalDateTime.now()) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            return true;
+        }));
+    }
+
+    // Placeholders: NotificationService is not wired in yet; these log what it would send
+    private void sendConfirmationEmail(Order order) {
+        logger.info("Sending order confirmation email for order {} to {} (total {})",
+                order.getOrderNumber(), order.getUser().getEmail(), order.getTotalPrice());
+    }
+
+    private void notifyNewOrder(Order order) {
+        logger.info("Notifying admin of new order {} from {} (total {})",
+                order.getOrderNumber(), order.getUser().getName(), order.getTotalPrice());
+    }
+
+    // A concurrent first sale of the day fails on the key and is retried as an update
+    private void countSale(Order order) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        long units = order.getOrderItems().stream().mapToLong(OrderItem::getQuantity).sum();
+        if (salesTotalRepository.addSale(day, units, order.getTotalPrice()) == 0) {
+            SalesTotal total = new SalesTotal(day);
+            total.setOrderCount(1L);
+            total.setUnitCount(units);
+            total.setRevenue(order.getTotalPrice());
+            salesTotalRepository.save(total);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.orderOutboxCleanupIntervalMs:86400000}",
+            fixedDelayString = "${app.orderOutboxCleanupIntervalMs:86400000}")
+    public void deleteProcessed() {
+        int deleted = outboxRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            logger.info("Deleted {} processed order outbox events", deleted);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enqueued", enqueued.get());
+        stats.put("processed", processed.get());
+        stats.put("failed", failed.get());
+        stats.put("pickedUpByPoll", polledUp.get());
+        stats.put("pending", outboxRepository.countByProcessedAtIsNull());
+        stats.put("lastLagMs", lastLagMs);
+        Object[] sales = salesTotalRepository.sumAll().get(0);
+        stats.put("ordersPlaced", ((Number) sales[0]).longValue());
+        stats.put("unitsSold", ((Number) sales[1]).longValue());
+        stats.put("revenue", sales[2] instanceof BigDecimal revenue ? revenue : BigDecimal.ZERO.setScale(2));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        outboxExecutor.shutdownNow();
+    }
+}
@@ -4,18 +4,24 @@ import com.example.ecommerce.backend.model.*;
 import com.example.ecommerce.backend.repository.OrderRepository;
 import com.example.ecommerce.backend.service.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Transactional
@@ -26,24 +32,34 @@ public class OrderServiceImpl implements OrderService {
     private final CartService cartService;
     private final UserService userService;
     private final InventoryService inventoryService;
-
-    private static final AtomicLong orderCounter = new AtomicLong();
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderOutbox orderOutbox;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order createOrderFromCart(Long userId, String shippingAddress, String paymentMethod) {
+        // Lookups, validation and pricing run before the order transaction opens, so it only
+        // holds inventory locks for the reservation and the inserts
+
         // Validate user
         User user = userService.getUserById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
         // Get cart items
+        LocalDateTime cartReadAt = LocalDateTime.now();
         List<CartItem> cartItems = cartService.getCartItems(userId);
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
 
-        // Validate cart
-        if (!cartService.validateCartForCheckout(userId)) {
-            throw new RuntimeException("Cart validation failed. Some items may be out of stock.");
+        // Validate cart; stock is checked once, under lock, by the batched reservation below
+        Map<Long, Integer> quantitiesByProductId = new HashMap<>();
+        for (CartItem cartItem : cartItems) {
+            if (!cartItem.getProduct().getIsActive()) {
+                throw new RuntimeException("Cart validation failed. Product is not available: " + cartItem.getProduct().getTitle());
+            }
+            quantitiesByProductId.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
         }
 
         // Create order
@@ -89,20 +105,22 @@ public class OrderServiceImpl implements OrderService {
             orderItem.setProductSku(cartItem.getProduct().getSku());
 
             orderItems.add(orderItem);
-
-            // Reserve inventory
-            inventoryService.reserveStock(cartItem.getProduct().getId(), cartItem.getQuantity());
         }
 
         order.setOrderItems(orderItems);
 
-        // Save order
-        Order savedOrder = orderRepository.save(order);
+        // Claim the cart lines, reserve, insert the order and record its follow-up work in one
+        // short transaction. Notifications and sales counters run from the outbox once it commits.
+        return transactionTemplate.execute(status -> {
+            cartService.removeCheckedOutItems(userId, cartItems, cartReadAt);
 
-        // Clear cart
-        cartService.clearCart(userId);
+            // Reserve inventory for every line in one locked batch
+            inventoryService.reserveStock(quantitiesByProductId);
 
-        return savedOrder;
+            Order savedOrder = orderRepository.save(order);
+            orderOutbox.enqueue(savedOrder);
+            return savedOrder;
+        });
     }
 
     @Override
@@ -154,7 +172,7 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Order order = getOrderById(orderId)
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
 
         // Validate transition
@@ -187,7 +205,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Order updatePaymentStatus(Long orderId, PaymentStatus paymentStatus) {
-        Order order = getOrderById(orderId)
+        Order order = orderRepository.findWithDetailsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
 
         order.setPaymentStatus(paymentStatus);
@@ -212,6 +230,18 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Order> getAllOrders(ScrollPosition position, Sort sort, int size) {
+        return orderRepository.findAllBy(position, sort, Limit.of(size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long countAllOrders() {
+        return orderRepository.count();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Order> getUserOrders(Long userId) {
@@ -236,6 +266,12 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByStatus(status, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Order> getOrdersByStatus(OrderStatus status, ScrollPosition position, Sort sort, int size) {
+        return orderRepository.findByStatus(status, position, sort, Limit.of(size));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Order> searchOrders(String searchTerm, Pageable pageable) {
@@ -335,9 +371,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long sequence = orderCounter.incrementAndGet();
-        return "ORD-" + timestamp + "-" + String.format("%06d", sequence);
+        return orderNumberGenerator.nextOrderNumber();
     }
 
     @Override
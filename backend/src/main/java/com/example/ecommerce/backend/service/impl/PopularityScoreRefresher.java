@@ -0,0 +1,112 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.OrderItemRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Recomputes products.popularity_score from delivered order items and current cart adds so
+// "Best Selling" sorts on an indexed column instead of aggregating order items per request.
+// Only products whose score changed are written, grouped into one UPDATE per score value.
+@Component
+public class PopularityScoreRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityScoreRefresher.class);
+
+    // A delivered unit says more about demand than an item sitting in a cart
+    private static final long UNIT_SOLD_WEIGHT = 3;
+    private static final long CART_ADD_WEIGHT = 1;
+    private static final int UPDATE_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+
+    public PopularityScoreRefresher(ProductRepository productRepository,
+                                    OrderItemRepository orderItemRepository,
+                                    CartItemRepository cartItemRepository,
+                                    CatalogVersion catalogVersion,
+                                    @Value("${app.popularityRefreshEnabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshOnStartup() {
+        scheduledRefresh();
+    }
+
+    @Scheduled(initialDelayString = "${app.popularityRefreshIntervalMs:900000}",
+            fixedDelayString = "${app.popularityRefreshIntervalMs:900000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.error("Popularity score refresh failed", e);
+        }
+    }
+
+    public int refresh() {
+        long startedAt = System.currentTimeMillis();
+
+        Map<Long, Long> scores = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumDeliveredQuantityByProduct()) {
+            scores.merge((Long) row[0], ((Number) row[1]).longValue() * UNIT_SOLD_WEIGHT, Long::sum);
+        }
+        for (Object[] row : cartItemRepository.findMostAddedToCartProducts()) {
+            scores.merge((Long) row[0], ((Number) row[1]).longValue() * CART_ADD_WEIGHT, Long::sum);
+        }
+
+        Map<Long, Long> current = new HashMap<>();
+        for (Object[] row : productRepository.findNonZeroPopularityScores()) {
+            current.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        // Changed products grouped by their new score; most share a handful of small values
+        Map<Long, List<Long>> productIdsByScore = new HashMap<>();
+        scores.forEach((productId, score) -> {
+            if (!score.equals(current.getOrDefault(productId, 0L))) {
+                productIdsByScore.computeIfAbsent(score, ignored -> new ArrayList<>()).add(productId);
+            }
+        });
+        current.keySet().stream()
+                .filter(productId -> !scores.containsKey(productId))
+                .forEach(productId -> productIdsByScore.computeIfAbsent(0L, ignored -> new ArrayList<>()).add(productId));
+
+        int updated = 0;
+        for (Map.Entry<Long, List<Long>> entry : productIdsByScore.entrySet()) {
+            List<Long> productIds = entry.getValue();
+            for (int from = 0; from < productIds.size(); from += UPDATE_BATCH_SIZE) {
+                List<Long> batch = productIds.subList(from, Math.min(from + UPDATE_BATCH_SIZE, productIds.size()));
+                updated += productRepository.updatePopularityScore(entry.getKey(), batch);
+            }
+        }
+
+        if (updated > 0) {
+            // Cached "Best Selling" listings were built from the old scores
+            catalogVersion.bump();
+            logger.info("Refreshed popularity scores for {} products in {} ms", updated,
+                    System.currentTimeMillis() - startedAt);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ecommerce.backend.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Single hook for product writes: drops the cached detail, moves the catalog version on and
+// publishes a ProductChangedEvent for the in-memory indexes
+@Component
+@RequiredArgsConstructor
+public class ProductChangeNotifier {
+
+    private final ProductDetailCache productDetailCache;
+    private final CatalogVersion catalogVersion;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public void productChanged(Long productId) {
+        productDetailCache.invalidate(productId);
+        catalogVersion.bump();
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+    }
+}
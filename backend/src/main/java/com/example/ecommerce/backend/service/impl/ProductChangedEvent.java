@@ -0,0 +1,6 @@
+package com.example.ecommerce.backend.service.impl;
+
+// Published for every product create, update, activation change, stock change and delete.
+// Listeners that keep derived state (search index, autocomplete) reload the product by id.
+public record ProductChangedEvent(Long productId) {
+}
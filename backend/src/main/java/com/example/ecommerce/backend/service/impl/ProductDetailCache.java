@@ -0,0 +1,103 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.dto.ProductResponse;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+// Serialized ProductResponse JSON for active products, keyed by product id. Every write
+// that changes a field of ProductResponse or the active flag must call invalidate.
+@Component
+public class ProductDetailCache {
+
+    private static final String DETAIL_MESSAGE = "Product retrieved successfully";
+
+    private final Cache<Long, byte[]> cache;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final byte[] envelopePrefix;
+
+    public ProductDetailCache(ProductRepository productRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${app.productDetailCacheEnabled:true}") boolean enabled,
+                              @Value("${app.productDetailCacheSize:10000}") long maximumSize,
+                              @Value("${app.productDetailCacheTtlMs:600000}") long ttlMs) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        this.envelopePrefix = JsonEnvelope.prefix(objectMapper, DETAIL_MESSAGE);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Full ApiResponse body for an active product, or null when the product is missing or
+    // inactive so the caller can fall back to its usual error handling. Misses are not cached.
+    public byte[] getActiveProductResponse(Long productId) {
+        byte[] data = cache.get(productId, this::load);
+        return data != null ? wrap(data) : null;
+    }
+
+    private byte[] load(Long productId) {
+        return productRepository.findResponseById(productId)
+                .filter(ProductResponse::getIsActive)
+                .map(this::serialize)
+                .orElse(null);
+    }
+
+    private byte[] serialize(ProductResponse response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize product " + response.getId(), e);
+        }
+    }
+
+    private byte[] wrap(byte[] data) {
+        byte[] suffix = JsonEnvelope.suffix();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(envelopePrefix.length + data.length + suffix.length);
+        body.writeBytes(envelopePrefix);
+        body.writeBytes(data);
+        body.writeBytes(suffix);
+        return body.toByteArray();
+    }
+
+    // Inside a transaction the entry is dropped again after commit, so a read racing the
+    // write cannot re-cache the pre-commit row
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(productId);
+                }
+            });
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
@@ -1,20 +1,35 @@
 package com.example.ecommerce.backend.service.impl;
 
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.dto.ProductResponse;
 import com.example.ecommerce.backend.model.Product;
 import com.example.ecommerce.backend.repository.InventoryRepository;
 import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.search.ProductSearchService;
+import com.example.ecommerce.backend.search.SearchAnalytics;
+import com.example.ecommerce.backend.search.SearchFilter;
+import com.example.ecommerce.backend.search.SearchHits;
 import com.example.ecommerce.backend.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -24,6 +39,9 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
     private final InventoryManager inventoryManager;
+    private final ProductChangeNotifier productChangeNotifier;
+    private final ProductSearchService productSearchService;
+    private final SearchAnalytics searchAnalytics;
 
     @Override
     public Product createProduct(Product product) {
@@ -38,6 +56,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        productChangeNotifier.productChanged(savedProduct.getId());
 
         // Create corresponding inventory entry
         inventoryManager.createInventoryForNewProduct(savedProduct.getId(), product.getQtyAvailable());
@@ -51,6 +70,12 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ProductResponse> getProductDetail(Long id) {
+        return productRepository.findResponseById(id);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Product> getProductBySku(String sku) {
@@ -62,14 +87,26 @@ public class ProductServiceImpl implements ProductService {
         if (!productRepository.existsById(product.getId())) {
             throw new RuntimeException("Product not found with id: " + product.getId());
         }
+        productChangeNotifier.productChanged(product.getId());
         return productRepository.save(product);
     }
 
+    // Product fields and stock in one transaction, so a failed stock write rolls back the edit
+    @Override
+    public Product updateProduct(Product product, Integer qtyAvailable) {
+        Product updatedProduct = updateProduct(product);
+        if (qtyAvailable != null) {
+            updatedProduct = updateStock(product.getId(), qtyAvailable);
+        }
+        return updatedProduct;
+    }
+
     @Override
     public void deleteProduct(Long id) {
         if (!productRepository.existsById(id)) {
             throw new RuntimeException("Product not found with id: " + id);
         }
+        productChangeNotifier.productChanged(id);
         productRepository.deleteById(id);
     }
 
@@ -91,6 +128,7 @@ public class ProductServiceImpl implements ProductService {
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
             product.setIsActive(true);
+            productChangeNotifier.productChanged(productId);
             return productRepository.save(product);
         }
         throw new RuntimeException("Product not found with id: " + productId);
@@ -102,6 +140,7 @@ public class ProductServiceImpl implements ProductService {
         if (productOpt.isPresent()) {
             Product product = productOpt.get();
             product.setIsActive(false);
+            productChangeNotifier.productChanged(productId);
             return productRepository.save(product);
         }
         throw new RuntimeException("Product not found with id: " + productId);
@@ -115,31 +154,33 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Product> getActiveProducts(Pageable pageable) {
-        return productRepository.findByIsActive(true, pageable);
+    public Page<ProductCardResponse> getActiveProducts(Pageable pageable) {
+        return productRepository.findCardsByIsActive(true, pageable);
     }
 
     @Override
-    public Product updateStock(Long productId, Integer quantity) {
-        Optional<Product> productOpt = productRepository.findById(productId);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            product.setQtyAvailable(quantity);
-            Product updatedProduct = productRepository.save(product);
+    @Transactional(readOnly = true)
+    public Window<ProductCardResponse> getActiveProducts(ScrollPosition position, Sort sort, int size) {
+        return productRepository.findCardsByIsActive(true, position, sort, Limit.of(size));
+    }
 
-            // Update inventory as well
-            inventoryManager.syncProductAndInventoryStock(productId, quantity);
+    @Override
+    public Product updateStock(Long productId, Integer quantity) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
 
-            return updatedProduct;
-        }
-        throw new RuntimeException("Product not found with id: " + productId);
+        // Stock is written to inventory only; the product column follows after commit
+        inventoryManager.updateStock(productId, quantity);
+        product.setQtyAvailable(quantity);
+        return product;
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isInStock(Long productId) {
-        Optional<Product> productOpt = productRepository.findById(productId);
-        return productOpt.isPresent() && productOpt.get().getQtyAvailable() > 0;
+        return inventoryRepository.findByProductId(productId)
+                .map(inventory -> inventory.getQtyAvailable() > 0)
+                .orElse(false);
     }
 
     @Override
@@ -170,20 +211,61 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Product> searchProducts(String searchTerm, Pageable pageable) {
-        return productRepository.searchActiveProducts(searchTerm, pageable);
+    public Page<ProductCardResponse> searchProducts(String searchTerm, Pageable pageable) {
+        return searchProducts(searchTerm, null, null, null, null, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductCardResponse> searchProducts(String searchTerm, String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        Page<ProductCardResponse> results;
+        if (!productSearchService.isReady()) {
+            // Index still building or disabled: fall back to the LIKE scan with the same filters
+            results = productRepository.searchActiveProductCards(searchTerm, category, brand, minPrice, maxPrice, pageable);
+        } else {
+            SearchHits hits = productSearchService.search(searchTerm, new SearchFilter(category, brand, minPrice, maxPrice),
+                    (int) pageable.getOffset(), pageable.getPageSize());
+            results = new PageImpl<>(findAllInOrder(hits.productIds()), pageable, hits.totalHits());
+        }
+
+        // Count a search once, not once per page the user flips through
+        if (pageable.getPageNumber() == 0) {
+            searchAnalytics.recordSearch(searchTerm, results.getTotalElements());
+        }
+        return results;
+    }
+
+    private List<ProductCardResponse> findAllInOrder(List<Long> productIds) {
+        Map<Long, ProductCardResponse> productsById = productRepository.findCardsByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductCardResponse::id, Function.identity()));
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductCardResponse> getProductsByCategory(String category, Pageable pageable) {
+        return productRepository.findCardsByCategory(category, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductCardResponse> getProductsByBrand(String brand, Pageable pageable) {
+        return productRepository.findCardsByBrand(brand, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Product> getProductsByCategory(String category, Pageable pageable) {
-        return productRepository.findByCategory(category, pageable);
+    public Window<ProductCardResponse> getProductsByCategory(String category, ScrollPosition position, Sort sort, int size) {
+        return productRepository.findCardsByCategory(category, position, sort, Limit.of(size));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Product> getProductsByBrand(String brand, Pageable pageable) {
-        return productRepository.findByBrand(brand, pageable);
+    public Window<ProductCardResponse> getProductsByBrand(String brand, ScrollPosition position, Sort sort, int size) {
+        return productRepository.findCardsByBrand(brand, position, sort, Limit.of(size));
     }
 
     @Override
@@ -194,8 +276,8 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Product> getProductsWithFilters(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findProductsWithFilters(category, brand, minPrice, maxPrice, pageable);
+    public Page<ProductCardResponse> getProductsWithFilters(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return productRepository.findProductCardsWithFilters(category, brand, minPrice, maxPrice, pageable);
     }
 
     @Override
@@ -212,8 +294,8 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Product> getRecentProducts(Pageable pageable) {
-        return productRepository.findRecentProducts(pageable);
+    public Page<ProductCardResponse> getRecentProducts(Pageable pageable) {
+        return productRepository.findRecentProductCards(pageable);
     }
 
     @Override
@@ -228,6 +310,18 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.countActiveProducts();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Long countProductsByCategory(String category) {
+        return productRepository.countByCategory(category);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long countProductsByBrand(String brand) {
+        return productRepository.countByBrand(brand);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getAveragePrice() {
@@ -0,0 +1,35 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.dto.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+import java.util.Set;
+
+// Maps the public sortBy values of product listings to columns that have a matching
+// (is_active, column) index, so a sorted page is an index range scan rather than a
+// filesort. Anything else is rejected instead of being passed through to Sort.by.
+public final class ProductSortPlanner {
+
+    private static final Map<String, String> PROPERTIES = Map.of(
+            "createdAt", "createdAt",
+            "newest", "createdAt",
+            "price", "price",
+            "popularity", "popularityScore",
+            "bestSelling", "popularityScore",
+            "id", "id"
+    );
+    private static final Set<String> SORTABLE = Set.copyOf(PROPERTIES.values());
+
+    private ProductSortPlanner() {
+    }
+
+    // Always ends with the id, so equal sort keys page deterministically
+    public static Sort plan(String sortBy, String sortDir) {
+        String property = PROPERTIES.get(sortBy);
+        if (property == null) {
+            throw new RuntimeException("Unsupported sortBy: " + sortBy + ". Allowed: " + PROPERTIES.keySet());
+        }
+        return KeysetCursor.sort(property, sortDir, SORTABLE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Keeps products.qty_available in step with inventory after each committed stock write: one
+// guarded UPDATE per product instead of loading and saving the product inside the stock
+// transaction. A failed refresh only leaves drift behind, which StockReconciler repairs.
+@Component
+public class ProductStockProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStockProjector.class);
+
+    private final ProductRepository productRepository;
+    private final ProductChangeNotifier productChangeNotifier;
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductStockProjector(ProductRepository productRepository,
+                                 ProductChangeNotifier productChangeNotifier,
+                                 PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productChangeNotifier = productChangeNotifier;
+        // After commit the stock transaction is finished but still bound; write in a fresh one
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Several writes to one product in a transaction refresh it once; the rest match nothing
+                if (productRepository.refreshQtyAvailable(List.of(event.productId())) > 0) {
+                    productChangeNotifier.productChanged(event.productId());
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh stock read model for product {}", event.productId(), e);
+        }
+    }
+}
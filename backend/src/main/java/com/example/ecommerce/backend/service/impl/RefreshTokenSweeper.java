@@ -0,0 +1,43 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+// Deletes expired refresh tokens in small batches, each its own transaction, so the purge
+// never holds locks on a large range of refresh_tokens at once
+@Component
+public class RefreshTokenSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenSweeper.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final int batchSize;
+
+    public RefreshTokenSweeper(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${app.refreshTokenSweepBatchSize:500}") int batchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.refreshTokenSweepIntervalMs:3600000}",
+            fixedDelayString = "${app.refreshTokenSweepIntervalMs:3600000}")
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            logger.info("Purged {} expired refresh tokens", total);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.service.OrderNumberGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style ids: 41 bits of milliseconds since EPOCH, 10 bits of node id, 12 bits of
+// per-millisecond sequence. Each node must have its own node id: app.orderNumberNodeId, or when
+// that is unset, the low 10 bits of the node's IPv4 address, which are unique within a /22.
+// Rendered as ORD-yyyyMMdd-<id> without going through String.format or DateTimeFormatter.
+@Component
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeOrderNumberGenerator.class);
+
+    static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final ZoneId zone;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+
+    private volatile DayPrefix dayPrefix = new DayPrefix(0, 0, "");
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(@Value("${app.orderNumberNodeId:}") Long nodeId) {
+        this(nodeId != null ? nodeId : hostNodeId(), ZoneId.systemDefault());
+    }
+
+    SnowflakeOrderNumberGenerator(long nodeId, ZoneId zone) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order number node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.zone = zone;
+    }
+
+    private static long hostNodeId() {
+        try {
+            InetAddress address = siteAddress();
+            long nodeId = nodeIdFor(address);
+            logger.info("app.orderNumberNodeId is not set; using {} from {}", nodeId, address.getHostAddress());
+            return nodeId;
+        } catch (UnknownHostException | SocketException e) {
+            throw new IllegalStateException("Cannot derive an order number node id; set app.orderNumberNodeId", e);
+        }
+    }
+
+    // The address the host name resolves to, unless that is loopback (as on many desktops):
+    // then the first IPv4 address of an interface that is up
+    private static InetAddress siteAddress() throws UnknownHostException, SocketException {
+        InetAddress local = InetAddress.getLocalHost();
+        if (local instanceof Inet4Address && !local.isLoopbackAddress()) {
+            return local;
+        }
+        for (NetworkInterface network : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (!network.isUp() || network.isLoopback() || network.isVirtual()) {
+                continue;
+            }
+            for (InetAddress address : Collections.list(network.getInetAddresses())) {
+                if (address instanceof Inet4Address) {
+                    return address;
+                }
+            }
+        }
+        throw new UnknownHostException("No non-loopback IPv4 address on this host");
+    }
+
+    static long nodeIdFor(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        return ((bytes[bytes.length - 2] & 0xFFL) << 8 | (bytes[bytes.length - 1] & 0xFFL)) & MAX_NODE_ID;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        long id = nextId();
+        long millis = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+        String prefix = prefixFor(millis);
+        return new StringBuilder(prefix.length() + 19).append(prefix).append(id).toString();
+    }
+
+    long nextId() {
+        while (true) {
+            long previous = state.get();
+            long previousTime = previous >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH;
+
+            long next;
+            if (now > previousTime) {
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // Same millisecond, or the clock stepped back: stay monotonic on the last timestamp
+                next = previous + 1;
+            } else {
+                // Sequence exhausted for this millisecond: borrow the next one
+                next = (previousTime + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(previous, next)) {
+                long time = next >>> SEQUENCE_BITS;
+                return (time << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private String prefixFor(long millis) {
+        DayPrefix current = dayPrefix;
+        if (millis >= current.startMillis() && millis < current.endMillis()) {
+            return current.prefix();
+        }
+
+        LocalDate date = Instant.ofEpochMilli(millis).atZone(zone).toLocalDate();
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        char[] chars = {'O', 'R', 'D', '-', '0', '0', '0', '0', '0', '0', '0', '0', '-'};
+        writeDigits(chars, 4, 4, date.getYear());
+        writeDigits(chars, 8, 2, date.getMonthValue());
+        writeDigits(chars, 10, 2, date.getDayOfMonth());
+
+        DayPrefix updated = new DayPrefix(start, end, new String(chars));
+        dayPrefix = updated;
+        return updated.prefix();
+    }
+
+    private static void writeDigits(char[] chars, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private record DayPrefix(long startMillis, long endMillis, String prefix) {
+    }
+}
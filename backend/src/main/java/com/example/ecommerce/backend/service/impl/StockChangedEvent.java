@@ -0,0 +1,6 @@
+package com.example.ecommerce.backend.service.impl;
+
+// Published whenever inventory.qty_available is written. ProductStockProjector copies the new
+// value onto products.qty_available once the writing transaction has committed.
+public record StockChangedEvent(Long productId) {
+}
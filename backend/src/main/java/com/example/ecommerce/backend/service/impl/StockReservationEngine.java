@@ -0,0 +1,105 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventoryMovementType;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Reserves stock without the load/check/save race: single items go through one guarded
+// UPDATE each, whole carts through one locking read and one batched flush.
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class StockReservationEngine {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJournal inventoryJournal;
+
+    public boolean tryReserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity to reserve must be positive");
+        }
+        if (inventoryRepository.reserveStock(productId, quantity) != 1) {
+            return false;
+        }
+        inventoryJournal.record(productId, InventoryMovementType.RESERVE, 0, quantity);
+        return true;
+    }
+
+    public void reserve(Long productId, int quantity) {
+        if (!tryReserve(productId, quantity)) {
+            throw new RuntimeException("Cannot reserve stock for product " + productId + ". Insufficient available quantity.");
+        }
+    }
+
+    // All-or-nothing: any failed line throws, which rolls back the lines already reserved
+    // in this transaction. Rows are updated in product-id order so two multi-item
+    // reservations never take row locks in opposite orders.
+    public void reserveAll(Map<Long, Integer> quantitiesByProductId) {
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantitiesByProductId).entrySet()) {
+            reserve(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Checkout path for whole carts: one locking SELECT for every line, validation and
+    // reservation in memory, then a single flush of the dirty rows.
+    public void reserveBatch(Map<Long, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return;
+        }
+
+        List<Inventory> inventories = inventoryRepository.findAndLockByProductIds(quantitiesByProductId.keySet());
+        if (inventories.size() != quantitiesByProductId.size()) {
+            throw new RuntimeException("Inventory not found for some products in the order");
+        }
+
+        for (Inventory inventory : inventories) {
+            Long productId = inventory.getProduct().getId();
+            Integer quantity = quantitiesByProductId.get(productId);
+            if (quantity == null || quantity <= 0) {
+                throw new RuntimeException("Quantity to reserve must be positive");
+            }
+            if (!inventory.canFulfillOrder(quantity)) {
+                throw new RuntimeException("Insufficient stock available for product " + productId +
+                        ". Available: " + inventory.getAvailableForSale() + ", Requested: " + quantity);
+            }
+        }
+
+        for (Inventory inventory : inventories) {
+            Long productId = inventory.getProduct().getId();
+            Integer quantity = quantitiesByProductId.get(productId);
+            inventory.setQtyReserved(inventory.getQtyReserved() + quantity);
+            inventoryJournal.record(productId, InventoryMovementType.RESERVE, 0, quantity);
+        }
+        inventoryRepository.flush();
+    }
+
+    public boolean tryRelease(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity to release must be positive");
+        }
+        if (inventoryRepository.releaseReservedStock(productId, quantity) != 1) {
+            return false;
+        }
+        inventoryJournal.record(productId, InventoryMovementType.RELEASE, 0, -quantity);
+        return true;
+    }
+
+    public void release(Long productId, int quantity) {
+        if (!tryRelease(productId, quantity)) {
+            throw new RuntimeException("Cannot release more than reserved for product " + productId);
+        }
+    }
+
+    public void releaseAll(Map<Long, Integer> quantitiesByProductId) {
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantitiesByProductId).entrySet()) {
+            release(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -3,11 +3,16 @@ package com.example.ecommerce.backend.service.impl;
 import com.example.ecommerce.backend.model.User;
 import com.example.ecommerce.backend.model.UserRole;
 import com.example.ecommerce.backend.repository.UserRepository;
+import com.example.ecommerce.backend.security.services.UserPrincipalCache;
 import com.example.ecommerce.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +28,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache userPrincipalCache;
 
     @Override
     public User createUser(User user) {
@@ -48,10 +54,15 @@ public class UserServiceImpl implements UserService {
     //!
     @Override
     public User updateUser(User user) {
-        if (!userRepository.existsById(user.getId())) {
-            throw new RuntimeException("User not found with id: " + user.getId());
+        String previousEmail = userRepository.findStoredEmailById(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + user.getId()));
+        User savedUser = userRepository.save(user);
+        // After an email change the principal is still cached under the old one
+        userPrincipalCache.invalidate(previousEmail);
+        if (!previousEmail.equals(savedUser.getEmail())) {
+            userPrincipalCache.invalidate(savedUser.getEmail());
         }
-        return userRepository.save(user);
+        return savedUser;
     }
 
     @Override
@@ -59,6 +70,7 @@ public class UserServiceImpl implements UserService {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("User not found with id: " + id);
         }
+        userRepository.findById(id).ifPresent(user -> userPrincipalCache.invalidate(user.getEmail()));
         userRepository.deleteById(id);
     }
 
@@ -111,6 +123,7 @@ public class UserServiceImpl implements UserService {
             if (passwordEncoder.matches(oldPassword, user.getHashedPassword())) {
                 user.setHashedPassword(passwordEncoder.encode(newPassword));
                 userRepository.save(user);
+                userPrincipalCache.invalidate(user.getEmail());
                 return true;
             }
         }
@@ -123,7 +136,9 @@ public class UserServiceImpl implements UserService {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             user.setIsActive(true);
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            userPrincipalCache.invalidate(savedUser.getEmail());
+            return savedUser;
         }
         throw new RuntimeException("User not found with id: " + userId);
     }
@@ -134,7 +149,9 @@ public class UserServiceImpl implements UserService {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             user.setIsActive(false);
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            userPrincipalCache.invalidate(savedUser.getEmail());
+            return savedUser;
         }
         throw new RuntimeException("User not found with id: " + userId);
     }
@@ -151,6 +168,12 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByRole(role, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Window<User> getUsersByRole(UserRole role, ScrollPosition position, Sort sort, int size) {
+        return userRepository.findByRole(role, position, sort, Limit.of(size));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
@@ -178,7 +201,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public Long countUsersByRole(UserRole role) {
-        return userRepository.findByRole(role).stream().count();
+        return userRepository.countByRole(role);
     }
 
     @Override
@@ -0,0 +1,110 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.dto.CartItemResponse;
+import com.example.ecommerce.backend.dto.CartLineResponse;
+import com.example.ecommerce.backend.dto.CartSummaryResponse;
+import com.example.ecommerce.backend.model.CartItem;
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// GET /api/cart is served by findCartView alone; the caller's id comes from the JWT principal
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartViewTest {
+
+    private static final int LINES = 8;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User customer = new User();
+        customer.setName("Customer");
+        customer.setEmail("customer@example.com");
+        customer.setHashedPassword("hash");
+        entityManager.persist(customer);
+        userId = customer.getId();
+
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setTitle("Product " + i);
+            product.setSku("SKU-" + i);
+            product.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i)));
+            product.setQtyAvailable(10);
+            product.setImageUrl("https://img.example.com/" + i + ".jpg");
+            entityManager.persist(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setQtyAvailable(10);
+            inventory.setQtyReserved(i);
+            entityManager.persist(inventory);
+
+            CartItem item = new CartItem();
+            item.setUser(customer);
+            item.setProduct(product);
+            item.setQuantity(i + 1);
+            entityManager.persist(item);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void cartViewIsOneStatementAndManagesNoEntities() {
+        CartSummaryResponse cart = new CartSummaryResponse(cartItemRepository.findCartView(userId));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(LINES, cart.getTotalItems());
+        assertEquals(LINES * (LINES + 1) / 2, cart.getTotalQuantity());
+
+        CartLineResponse line = cart.getItems().stream()
+                .filter(item -> item.title().equals("Product 3"))
+                .findFirst().orElseThrow();
+        assertEquals(new BigDecimal("22.99"), line.unitPrice());
+        assertEquals(new BigDecimal("91.96"), line.totalPrice());
+        assertEquals(7, line.availableQuantity());
+
+        // The entity path resolves each product's inventory one-to-one row by row
+        entityManager.clear();
+        statistics.clear();
+        List<CartItemResponse> entityItems = cartItemRepository.findCartItemsByUserIdOrderByCreatedAt(userId).stream()
+                .map(CartItemResponse::new)
+                .toList();
+        assertTrue(statistics.getPrepareStatementCount() > 1);
+
+        BigDecimal entityTotal = entityItems.stream()
+                .map(CartItemResponse::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(entityTotal, cart.getTotalAmount());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.dto.OrderResponse;
+import com.example.ecommerce.backend.dto.OrderSummaryResponse;
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Order;
+import com.example.ecommerce.backend.model.OrderItem;
+import com.example.ecommerce.backend.model.OrderStatus;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Statement counts must stay flat as the number of orders and items grows
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderFetchPlanTest {
+
+    private static final int ORDERS = 12;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Statistics statistics;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        customer = new User();
+        customer.setName("Customer");
+        customer.setEmail("customer@example.com");
+        customer.setHashedPassword("hash");
+        entityManager.persist(customer);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER * 2; i++) {
+            Product product = new Product();
+            product.setTitle("Product " + i);
+            product.setSku("SKU-" + i);
+            product.setPrice(BigDecimal.TEN);
+            product.setQtyAvailable(100);
+            product.setIsActive(true);
+            entityManager.persist(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setQtyAvailable(100);
+            entityManager.persist(inventory);
+            products.add(product);
+        }
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(customer);
+            order.setOrderNumber("ORD-" + i);
+            order.setStatus(i % 2 == 0 ? OrderStatus.PENDING : OrderStatus.CONFIRMED);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                OrderItem item = new OrderItem();
+                item.setProduct(products.get((i + j) % products.size()));
+                item.setQuantity(1 + j);
+                item.setUnitPrice(BigDecimal.TEN);
+                order.addOrderItem(item);
+            }
+            entityManager.persist(order);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void summaryListingsUseAConstantNumberOfStatements() {
+        PageRequest pageable = PageRequest.of(0, 50, Sort.by("createdAt").descending());
+
+        List<OrderSummaryResponse> all = orderRepository.findAll(pageable).map(OrderSummaryResponse::new).getContent();
+        // Orders joined with their customer, then one batched load of the item collections
+        assertEquals(ORDERS, all.size());
+        assertTrue(all.stream().allMatch(summary -> summary.getItemCount() == ITEMS_PER_ORDER));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        statistics.clear();
+        List<OrderSummaryResponse> pending = orderRepository.findByStatus(OrderStatus.PENDING, pageable)
+                .map(OrderSummaryResponse::new).getContent();
+        assertEquals(ORDERS / 2, pending.size());
+        assertEquals("customer@example.com", pending.get(0).getCustomerEmail());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void customerHistoryUsesAConstantNumberOfStatements() {
+        List<OrderSummaryResponse> history = orderRepository.findByUserId(customer.getId(), PageRequest.of(0, 50))
+                .map(OrderSummaryResponse::new).getContent();
+
+        assertEquals(ORDERS, history.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void orderDetailLoadsInASingleStatement() {
+        OrderResponse detail = orderRepository.findByOrderNumber("ORD-3").map(OrderResponse::new).orElseThrow();
+
+        assertEquals(ITEMS_PER_ORDER, detail.getOrderItems().size());
+        assertEquals("Customer", detail.getUser().getName());
+        assertTrue(detail.getOrderItems().stream().allMatch(item -> item.getProduct().getSku() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        statistics.clear();
+        Long id = detail.getId();
+        orderRepository.findWithDetailsById(id).map(OrderResponse::new).orElseThrow();
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
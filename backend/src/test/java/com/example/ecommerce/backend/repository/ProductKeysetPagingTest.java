@@ -0,0 +1,88 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.dto.CursorPage;
+import com.example.ecommerce.backend.dto.KeysetCursor;
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+class ProductKeysetPagingTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void cursorsWalkEveryActiveProductOnceInSortOrder() {
+        List<Product> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            // Repeated prices force the id tie-breaker to keep pages disjoint
+            Product product = saveProduct("SKU-" + i, new BigDecimal(10 + i % 4), true);
+            expected.add(product);
+        }
+        saveProduct("SKU-INACTIVE", BigDecimal.ONE, false);
+        expected.sort(Comparator.comparing(Product::getPrice).thenComparing(Product::getId));
+
+        Sort sort = KeysetCursor.sort("price", "asc", Set.of("createdAt", "price", "id"));
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            Window<ProductCardResponse> window = productRepository.findCardsByIsActive(true, KeysetCursor.decode(cursor, sort), sort, Limit.of(10));
+            CursorPage<Long> page = CursorPage.of(window, sort, ProductCardResponse::id, null);
+            seen.addAll(page.getContent());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(expected.stream().map(Product::getId).toList(), seen);
+    }
+
+    @Test
+    void rejectsCursorsForAnotherSortOrTamperedCursors() {
+        saveProduct("SKU-A", BigDecimal.TEN, true);
+        saveProduct("SKU-B", BigDecimal.TEN, true);
+
+        Sort byPrice = KeysetCursor.sort("price", "asc", Set.of("price", "createdAt"));
+        Window<ProductCardResponse> first = productRepository.findCardsByIsActive(true, KeysetCursor.decode("", byPrice), byPrice, Limit.of(1));
+        String cursor = CursorPage.of(first, byPrice, ProductCardResponse::id, null).getNextCursor();
+
+        Sort byCreated = KeysetCursor.sort("createdAt", "desc", Set.of("price", "createdAt"));
+        assertThrows(RuntimeException.class, () -> KeysetCursor.decode(cursor, byCreated));
+        assertThrows(RuntimeException.class, () -> KeysetCursor.decode("not-a-cursor", byPrice));
+        assertThrows(RuntimeException.class, () -> KeysetCursor.sort("title", "asc", Set.of("price")));
+
+        Window<ProductCardResponse> last = productRepository.findCardsByIsActive(true, KeysetCursor.decode(cursor, byPrice), byPrice, Limit.of(1));
+        CursorPage<Long> page = CursorPage.of(last, byPrice, ProductCardResponse::id, null);
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    private Product saveProduct(String sku, BigDecimal price, boolean active) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(price);
+        product.setSku(sku);
+        product.setQtyAvailable(1);
+        product.setIsActive(active);
+        return productRepository.save(product);
+    }
+}
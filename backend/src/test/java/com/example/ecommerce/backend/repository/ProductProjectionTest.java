@@ -0,0 +1,128 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.dto.ProductResponse;
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductProjectionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductProjectionTest.class);
+
+    private static final int PRODUCTS = 40;
+    // Larger than the catalog so Spring Data skips the count query
+    private static final PageRequest GRID_PAGE = PageRequest.of(0, PRODUCTS + 10, Sort.by("createdAt").descending());
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setTitle("Product " + i);
+            product.setDescription("A long description ".repeat(50));
+            product.setSku("SKU-" + i);
+            product.setPrice(new BigDecimal(10 + i));
+            product.setQtyAvailable(5);
+            product.setCategory("Home");
+            product.setBrand("Acme");
+            product.setIsActive(true);
+            entityManager.persist(product);
+
+            Inventory inventory = new Inventory();
+            inventory.setProduct(product);
+            inventory.setQtyAvailable(5);
+            entityManager.persist(inventory);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void cardPageIsOneStatementAndManagesNoEntities() {
+        List<ProductCardResponse> cards = productRepository.findCardsByIsActive(true, GRID_PAGE).getContent();
+
+        assertEquals(PRODUCTS, cards.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // The entity path resolves the inverse inventory one-to-one row by row
+        entityManager.clear();
+        statistics.clear();
+        productRepository.findByIsActive(true, GRID_PAGE).map(ProductResponse::new);
+        assertTrue(statistics.getPrepareStatementCount() > 1);
+    }
+
+    @Test
+    void detailProjectionCarriesEveryResponseField() {
+        Long id = productRepository.findCardsByIsActive(true, GRID_PAGE).getContent().get(0).id();
+        ProductResponse fromEntity = new ProductResponse(productRepository.findById(id).orElseThrow());
+        entityManager.clear();
+        statistics.clear();
+
+        ProductResponse projected = productRepository.findResponseById(id).orElseThrow();
+
+        assertEquals(fromEntity, projected);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // Allocation counters move with JIT, TLAB sizing and GC, so the figures are reported, not asserted
+    @Test
+    void reportsAllocationPerGridPage() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Supplier<Object> cards = () -> productRepository.findCardsByIsActive(true, GRID_PAGE);
+        Supplier<Object> entities = () -> productRepository.findByIsActive(true, GRID_PAGE).map(ProductResponse::new);
+
+        // Warm both paths so query plan caching and class loading stay out of the measurement
+        allocatedBytes(threads, cards, 20);
+        allocatedBytes(threads, entities, 20);
+
+        long cardBytes = allocatedBytes(threads, cards, 50);
+        long entityBytes = allocatedBytes(threads, entities, 50);
+        logger.info("Grid page of {}: cards {} bytes/request, entities {} bytes/request",
+                PRODUCTS, cardBytes, entityBytes);
+    }
+
+    private long allocatedBytes(ThreadMXBean threads, Supplier<Object> request, int runs) {
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < runs; i++) {
+            request.get();
+            entityManager.clear();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / runs;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ecommerce.backend.repository;
+
+import com.example.ecommerce.backend.model.RefreshToken;
+import com.example.ecommerce.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Both statements under test are native MySQL, so H2 runs in its MySQL mode
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:refresh_tokens;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Test
+    void upsertInsertsOnceThenRotatesTheSameRow() {
+        User user = createUser("rotate@example.com");
+        Instant expiry = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+
+        assertTrue(refreshTokenRepository.upsertForUser(user.getId(), hash('a'), expiry) > 0);
+        assertTrue(refreshTokenRepository.upsertForUser(user.getId(), hash('b'), expiry.plusSeconds(60)) > 0);
+        entityManager.clear();
+
+        assertEquals(1, refreshTokenRepository.count());
+        assertTrue(refreshTokenRepository.findByTokenHashWithUser(hash('a')).isEmpty());
+        RefreshToken rotated = refreshTokenRepository.findByTokenHashWithUser(hash('b')).orElseThrow();
+        assertEquals(user.getId(), rotated.getUser().getId());
+        assertEquals(expiry.plusSeconds(60), rotated.getExpiryDate());
+    }
+
+    @Test
+    void expiredTokensAreDeletedInBoundedBatches() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 3; i++) {
+            User user = createUser("expired" + i + "@example.com");
+            refreshTokenRepository.upsertForUser(user.getId(), hash((char) ('c' + i)), now.minus(1, ChronoUnit.HOURS));
+        }
+        User active = createUser("active@example.com");
+        refreshTokenRepository.upsertForUser(active.getId(), hash('f'), now.plus(1, ChronoUnit.HOURS));
+
+        assertEquals(2, refreshTokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(1, refreshTokenRepository.deleteExpiredBatch(now, 2));
+        assertEquals(0, refreshTokenRepository.deleteExpiredBatch(now, 2));
+        assertTrue(refreshTokenRepository.findByTokenHashWithUser(hash('f')).isPresent());
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setHashedPassword("hash");
+        return entityManager.persistAndFlush(user);
+    }
+
+    private static String hash(char fill) {
+        return String.valueOf(fill).repeat(64);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ecommerce.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutocompleteIndexTest {
+
+    private final AutocompleteIndex index = new AutocompleteIndex(5);
+
+    @Test
+    void ranksCompletionsBySalesAndMatchesLaterWords() {
+        index.index(document(1L, "Wireless Headphones", "Sonic", "Audio"), 5);
+        index.index(document(2L, "Wired Headset", "Sonic", "Audio"), 50);
+        index.index(document(3L, "Wireless Charger", "Volt", "Power"), 0);
+
+        assertEquals(List.of("Wired Headset", "Wireless Headphones", "Wireless Charger"), index.suggest("wir", 5));
+        assertEquals(List.of("Wired Headset", "Wireless Headphones"), index.suggest("head", 5));
+        // Sonic's weight is the sum of its two products, so it outranks each of them
+        assertEquals("Sonic", index.suggest("so", 5).get(0));
+    }
+
+    @Test
+    void updatesAndRemovalsKeepTopListsCurrent() {
+        index.index(document(1L, "Desk Lamp", "Lumo", "Home"), 10);
+        index.index(document(2L, "Desk Chair", "Sitwell", "Home"), 1);
+
+        index.index(document(1L, "Floor Lamp", "Lumo", "Home"), 10);
+        assertEquals(List.of("Desk Chair"), index.suggest("desk", 5));
+        assertEquals(List.of("Floor Lamp"), index.suggest("lamp", 5));
+
+        index.remove(2L);
+        assertTrue(index.suggest("desk", 5).isEmpty());
+        assertTrue(index.suggest("sitwell", 5).isEmpty());
+        assertEquals(List.of("Home"), index.suggest("hom", 5));
+    }
+
+    @Test
+    void keepsOnlyTopKPerPrefix() {
+        for (long id = 1; id <= 20; id++) {
+            index.index(document(id, "Gadget " + id, null, null), id);
+        }
+
+        assertEquals(List.of("Gadget 20", "Gadget 19", "Gadget 18", "Gadget 17", "Gadget 16"),
+                index.suggest("gad", 10));
+    }
+
+    private static ProductDocument document(Long id, String title, String brand, String category) {
+        return new ProductDocument(id, title, null, category, brand, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.ecommerce.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatchesAndStems() {
+        index.index(document(1L, "Leather wallet", "Pairs well with wireless headphones", "Accessories", "Acme", "20.00"));
+        index.index(document(2L, "Wireless Headphones", "Over-ear, noise cancelling", "Audio", "Sonic", "199.00"));
+        index.index(document(3L, "Desk lamp", "Warm light", "Home", "Lumo", "35.00"));
+
+        SearchHits hits = index.search("wireless headphone", SearchFilter.NONE, 0, 10);
+
+        assertEquals(2, hits.totalHits());
+        assertEquals(List.of(2L, 1L), hits.productIds());
+    }
+
+    @Test
+    void appliesFiltersAndPaging() {
+        for (long id = 1; id <= 30; id++) {
+            String brand = id % 2 == 0 ? "Even" : "Odd";
+            index.index(document(id, "Running shoe " + id, "Lightweight", "Shoes", brand, id + ".00"));
+        }
+
+        SearchFilter evenUnderTwenty = new SearchFilter(null, "even", null, new BigDecimal("20.00"));
+        SearchHits firstPage = index.search("shoes", evenUnderTwenty, 0, 4);
+        SearchHits secondPage = index.search("shoes", evenUnderTwenty, 4, 4);
+
+        assertEquals(10, firstPage.totalHits());
+        assertEquals(4, firstPage.productIds().size());
+        assertEquals(4, secondPage.productIds().size());
+        assertTrue(firstPage.productIds().stream().noneMatch(secondPage.productIds()::contains));
+        assertTrue(firstPage.productIds().stream().allMatch(id -> id % 2 == 0 && id <= 20));
+    }
+
+    @Test
+    void reindexingReplacesAndRemoveDropsDocument() {
+        index.index(document(1L, "Red mug", "Ceramic", "Kitchen", "Acme", "9.99"));
+        index.index(document(1L, "Blue mug", "Ceramic", "Kitchen", "Acme", "9.99"));
+
+        assertEquals(0, index.search("red", SearchFilter.NONE, 0, 10).totalHits());
+        assertEquals(List.of(1L), index.search("blue mug", SearchFilter.NONE, 0, 10).productIds());
+        assertEquals(1, index.deletedDocuments());
+
+        index.remove(1L);
+
+        assertEquals(0, index.search("mug", SearchFilter.NONE, 0, 10).totalHits());
+        assertEquals(0, index.liveDocuments());
+    }
+
+    @Test
+    void tombstonesDoNotTurnTermWeightsNegative() {
+        for (int version = 0; version < 20; version++) {
+            index.index(document(1L, "Lamp", "", null, null, "10.00"));
+            index.index(document(2L, "Lamp", "lamp", null, null, "10.00"));
+        }
+
+        // The document with more occurrences still ranks first
+        assertEquals(List.of(2L, 1L), index.search("lamp", SearchFilter.NONE, 0, 10).productIds());
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnFilterAndSkipRemovedDocuments() {
+        index.index(document(1L, "Wireless headphones", "", "Audio", "Sonic", "199.00"));
+        index.index(document(2L, "Wireless earbuds", "", "Audio", "Volt", "49.00"));
+        index.index(document(3L, "Wireless charger", "", "Power", "Volt", "19.00"));
+        index.index(document(4L, "Desk lamp", "", "Home", "Lumo", "35.00"));
+        index.index(document(5L, "Wireless speaker", "", "Audio", "Sonic", "89.00"));
+        index.remove(5L);
+
+        FacetCounts facets = index.facets("wireless", new SearchFilter(null, "volt", null, null));
+
+        assertEquals(2, facets.totalHits());
+        assertEquals(List.of(new FacetCounts.Value("Audio", 1), new FacetCounts.Value("Power", 1)), facets.categories());
+        // The brand facet is counted without the brand filter
+        assertEquals(List.of(new FacetCounts.Value("Volt", 2), new FacetCounts.Value("Sonic", 1)), facets.brands());
+        assertEquals(List.of(1L, 1L, 0L, 0L, 0L, 0L),
+                facets.priceRanges().stream().map(FacetCounts.PriceRange::count).toList());
+    }
+
+    @Test
+    void facetCountsMatchGroupingOverTheDocuments() {
+        Random random = new Random(42);
+        List<ProductDocument> documents = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            String category = "Category " + random.nextInt(8);
+            String brand = "Brand " + random.nextInt(40);
+            String title = (random.nextBoolean() ? "Red " : "Blue ") + "item " + id;
+            ProductDocument document = document(id, title, "", category, brand, random.nextInt(700) + ".00");
+            documents.add(document);
+            index.index(document);
+        }
+
+        SearchFilter filter = new SearchFilter("category 3", null, new BigDecimal("10.00"), new BigDecimal("300.00"));
+        FacetCounts facets = index.facets("red", filter);
+
+        // Equivalent of SELECT brand, COUNT(*) ... WHERE <query> AND <other filters> GROUP BY brand
+        Map<String, Long> expectedBrands = documents.stream()
+                .filter(d -> d.title().startsWith("Red"))
+                .filter(d -> d.category().equals("Category 3"))
+                .filter(d -> d.price().compareTo(new BigDecimal("10.00")) >= 0 && d.price().compareTo(new BigDecimal("300.00")) <= 0)
+                .collect(Collectors.groupingBy(ProductDocument::brand, Collectors.counting()));
+        Map<String, Long> expectedCategories = documents.stream()
+                .filter(d -> d.title().startsWith("Red"))
+                .filter(d -> d.price().compareTo(new BigDecimal("10.00")) >= 0 && d.price().compareTo(new BigDecimal("300.00")) <= 0)
+                .collect(Collectors.groupingBy(ProductDocument::category, Collectors.counting()));
+
+        assertEquals(expectedBrands, facets.brands().stream()
+                .collect(Collectors.toMap(FacetCounts.Value::value, FacetCounts.Value::count)));
+        assertEquals(expectedCategories, facets.categories().stream()
+                .collect(Collectors.toMap(FacetCounts.Value::value, FacetCounts.Value::count)));
+        assertEquals(expectedBrands.values().stream().mapToLong(Long::longValue).sum(), facets.totalHits());
+        assertEquals(facets.totalHits(), index.search("red", filter, 0, 1).totalHits());
+    }
+
+    private static ProductDocument document(Long id, String title, String description, String category,
+                                            String brand, String price) {
+        return new ProductDocument(id, title, description, category, brand, new BigDecimal(price));
+    }
+}
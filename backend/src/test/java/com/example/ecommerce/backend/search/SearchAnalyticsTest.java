@@ -0,0 +1,123 @@
+package com.example.ecommerce.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchAnalyticsTest {
+
+    private static final long BUCKET_MS = 60_000;
+
+    private final AtomicLong now = new AtomicLong(10 * BUCKET_MS);
+    private final SearchAnalytics analytics = new SearchAnalytics(1024, BUCKET_MS, 5, now::get);
+
+    @Test
+    void ranksTrendingQueriesAndSkipsZeroResultQueries() {
+        search("Wireless  Headphones", 5, 10);
+        search("gaming mouse", 3, 4);
+        search("unobtainium", 20, 0);
+        analytics.recordSavedSearch("gaming mouse");
+        analytics.drain();
+
+        assertEquals(List.of(new QueryCount("gaming mouse", 6), new QueryCount("wireless headphones", 5)),
+                analytics.trending(10));
+    }
+
+    @Test
+    void queriesAgeOutOfTheWindow() {
+        search("desk lamp", 4, 1);
+        analytics.drain();
+
+        now.addAndGet(3 * BUCKET_MS);
+        search("office chair", 1, 1);
+        analytics.drain();
+        assertEquals(2, analytics.trending(10).size());
+
+        now.addAndGet(2 * BUCKET_MS);
+        analytics.drain();
+        assertEquals(List.of(new QueryCount("office chair", 1)), analytics.trending(10));
+    }
+
+    @Test
+    void suggestsRelatedAndCorrectedQueries() {
+        search("wireless headphones", 8, 10);
+        search("wireless charger", 4, 10);
+        search("headphone stand", 2, 10);
+        search("wireles headphones", 1, 0);
+        analytics.drain();
+
+        assertEquals(List.of("wireless headphones", "wireless charger"), analytics.relatedQueries("Wireless", 5));
+        assertEquals(List.of("wireless headphones"), analytics.relatedQueries("headphone stand", 5));
+        assertEquals("wireless headphones", analytics.didYouMean("wireles headphones"));
+        assertNull(analytics.didYouMean("wireless headphones"));
+    }
+
+    @Test
+    void ringBufferDropsWhenFullInsteadOfBlocking() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(1, buffer.dropped());
+
+        assertEquals(4, buffer.drain(value -> { }, 10));
+        assertTrue(buffer.offer(5));
+    }
+
+    @Test
+    void ringBufferDeliversEveryEventFromConcurrentProducers() throws Exception {
+        int producers = 8;
+        int perProducer = 10_000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 1; i <= perProducer; i++) {
+                        while (!buffer.offer(i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            long expected = (long) producers * perProducer;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (count.get() < expected && System.nanoTime() < deadline) {
+                buffer.drain(value -> {
+                    sum.addAndGet(value);
+                    count.incrementAndGet();
+                }, 256);
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        assertEquals((long) producers * perProducer, count.get());
+        assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum.get());
+    }
+
+    private void search(String query, int times, long totalHits) {
+        for (int i = 0; i < times; i++) {
+            analytics.recordSearch(query, totalHits);
+        }
+    }
+}
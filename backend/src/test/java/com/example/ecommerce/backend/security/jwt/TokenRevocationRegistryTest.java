@@ -0,0 +1,38 @@
+package com.example.ecommerce.backend.security.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationRegistryTest {
+
+    private final TokenRevocationRegistry registry = new TokenRevocationRegistry();
+
+    TokenRevocationRegistryTest() {
+        ReflectionTestUtils.setField(registry, "jwtExpirationMs", 60_000L);
+    }
+
+    @Test
+    void tokenIssuedRightAfterARevocationStaysValid() {
+        long before = registry.currentVersion("user@example.com");
+        registry.revokeUser("user@example.com");
+        long after = registry.currentVersion("user@example.com");
+
+        assertTrue(registry.isRevoked("user@example.com", before));
+        assertFalse(registry.isRevoked("user@example.com", after));
+        assertTrue(registry.isRevoked("user@example.com", null));
+        assertFalse(registry.isRevoked("other@example.com", null));
+    }
+
+    @Test
+    void revocationsInTheSameMillisecondStillBumpTheVersion() {
+        registry.revokeUser("user@example.com");
+        long first = registry.currentVersion("user@example.com");
+        registry.revokeUser("user@example.com");
+
+        assertTrue(registry.isRevoked("user@example.com", first));
+        assertFalse(registry.isRevoked("user@example.com", registry.currentVersion("user@example.com")));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ecommerce.backend.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void rejectsImmediatelyOnceQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1, 10_000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One hash running, one queued: the pool and the queue are both full
+            List<Future<String>> accepted = new ArrayList<>();
+            accepted.add(callers.submit(() -> encoder.encode("first")));
+            accepted.add(callers.submit(() -> encoder.encode("second")));
+            waitUntil(() -> (int) encoder.metrics().get("queueDepth") == 1);
+
+            long startedAt = System.nanoTime();
+            assertThrows(TooManyRequestsException.class, () -> encoder.encode("third"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) < 1000);
+            assertEquals(1L, encoder.metrics().get("rejected"));
+
+            release.countDown();
+            for (Future<String> future : accepted) {
+                assertTrue(future.get(5, TimeUnit.SECONDS).startsWith("hashed:"));
+            }
+            assertEquals(2L, encoder.metrics().get("completed"));
+        } finally {
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not reached");
+            Thread.sleep(5);
+        }
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
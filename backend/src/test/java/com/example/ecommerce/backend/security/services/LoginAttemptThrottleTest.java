@@ -0,0 +1,60 @@
+package com.example.ecommerce.backend.security.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginAttemptThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final LoginAttemptThrottle throttle = new LoginAttemptThrottle(3, 5, 60_000, 1024, now::get);
+
+    @Test
+    void blocksEmailAfterRepeatedFailuresUntilWindowEnds() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("User@Example.com", "10.0.0." + i);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.assertAllowed("user@example.com", "10.0.0.99"));
+
+        now.addAndGet(60_000);
+        assertDoesNotThrow(() -> throttle.assertAllowed("user@example.com", "10.0.0.99"));
+    }
+
+    @Test
+    void blocksIpSprayingManyAccounts() {
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("victim" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> throttle.assertAllowed("fresh@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.assertAllowed("fresh@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void successClearsEmailFailures() {
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+        throttle.recordSuccess("user@example.com");
+        throttle.recordFailure("user@example.com", "10.0.0.1");
+
+        assertDoesNotThrow(() -> throttle.assertAllowed("user@example.com", "10.0.0.3"));
+    }
+
+    @Test
+    void floodOfDistinctKeysInOneWindowStaysBounded() {
+        for (int i = 0; i < 100_000; i++) {
+            throttle.recordFailure("user" + i + "@example.com", null);
+        }
+
+        assertEquals(1024, throttle.trackedKeys());
+        // The newest windows are the ones kept
+        throttle.recordFailure("user99999@example.com", null);
+        throttle.recordFailure("user99999@example.com", null);
+        assertThrows(TooManyRequestsException.class, () -> throttle.assertAllowed("user99999@example.com", null));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.CartItem;
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The background drain is pushed out of the way; the test drains by hand
+@DataJpaTest(properties = "app.cartReconcileIntervalMs=3600000")
+@Import({CartStockReconciler.class, CartStore.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartStockReconcilerTest {
+
+    @Autowired
+    private CartStockReconciler reconciler;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void cleanUp() {
+        cartItemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void coalescedStockChangesCapAndRemoveCartLines() {
+        User first = createUser("first@example.com");
+        User second = createUser("second@example.com");
+        // 5 on hand, 2 reserved: 3 sellable
+        Product scarce = createProduct("SCARCE", true, 5, 2);
+        Product retired = createProduct("RETIRED", false, 10, 0);
+        Product soldOut = createProduct("SOLD-OUT", true, 0, 0);
+
+        addToCart(first, scarce, 5);
+        addToCart(first, retired, 1);
+        addToCart(second, scarce, 2);
+        addToCart(second, soldOut, 1);
+
+        for (int i = 0; i < 50; i++) {
+            reconciler.onStockChanged(new StockChangedEvent(scarce.getId()));
+        }
+        reconciler.onProductChanged(new ProductChangedEvent(retired.getId()));
+        reconciler.onStockChanged(new StockChangedEvent(soldOut.getId()));
+        assertEquals(3, reconciler.stats().get("pendingProducts"));
+
+        reconciler.drain();
+
+        assertEquals(Optional.of(3), quantity(first, scarce));
+        assertEquals(Optional.of(2), quantity(second, scarce));
+        assertTrue(quantity(first, retired).isEmpty());
+        assertTrue(quantity(second, soldOut).isEmpty());
+        assertEquals(0, reconciler.stats().get("pendingProducts"));
+        assertEquals(2L, reconciler.stats().get("removedLines"));
+        assertEquals(1L, reconciler.stats().get("cappedLines"));
+    }
+
+    private Optional<Integer> quantity(User user, Product product) {
+        return cartItemRepository.findByUserIdAndProductId(user.getId(), product.getId()).map(CartItem::getQuantity);
+    }
+
+    private void addToCart(User user, Product product, int quantity) {
+        CartItem item = new CartItem();
+        item.setUser(user);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        cartItemRepository.save(item);
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setHashedPassword("hash");
+        return userRepository.save(user);
+    }
+
+    private Product createProduct(String sku, boolean active, int stock, int reserved) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(BigDecimal.TEN);
+        product.setSku(sku);
+        product.setIsActive(active);
+        product.setQtyAvailable(stock);
+        Product savedProduct = productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(savedProduct);
+        inventory.setQtyAvailable(stock);
+        inventory.setQtyReserved(reserved);
+        inventoryRepository.save(inventory);
+
+        return savedProduct;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.dto.CartSummaryResponse;
+import com.example.ecommerce.backend.model.CartItem;
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "app.cartStoreEnabled=true")
+@Import(CartStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartStoreTest {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long userId;
+    private Long mugId;
+    private Long teaId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Customer");
+        user.setEmail("customer@example.com");
+        user.setHashedPassword("hash");
+        userId = userRepository.save(user).getId();
+
+        mugId = createProduct("MUG", "12.50", 10);
+        teaId = createProduct("TEA", "4.25", 3);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cartItemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void editsStayInMemoryUntilFlushed() {
+        cartStore.add(userId, mugId, 2);
+        cartStore.add(userId, mugId, 1);
+        cartStore.add(userId, teaId, 3);
+        assertThrows(RuntimeException.class, () -> cartStore.add(userId, teaId, 1));
+
+        CartSummaryResponse cart = cartStore.view(userId);
+        assertEquals(2, cart.getTotalItems());
+        assertEquals(6, cart.getTotalQuantity());
+        assertEquals(new BigDecimal("50.25"), cart.getTotalAmount());
+        assertEquals(0, cartItemRepository.count());
+
+        assertEquals(2, cartStore.flush());
+        assertEquals(3, quantityInTable(mugId));
+        assertEquals(3, quantityInTable(teaId));
+
+        cartStore.update(userId, mugId, 1);
+        cartStore.remove(userId, teaId);
+        assertEquals(2, cartStore.flush());
+        assertEquals(1, quantityInTable(mugId));
+        assertEquals(1, cartItemRepository.count());
+        assertEquals(0, cartStore.flush());
+    }
+
+    @Test
+    void linesFlushedIntoARolledBackTransactionAreQueuedAgain() {
+        cartStore.add(userId, mugId, 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(1, cartStore.flush(userId));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, cartItemRepository.count());
+        assertEquals(1, cartStore.stats().get("dirtyCarts"));
+        assertEquals(1, cartStore.flush());
+        assertEquals(2, quantityInTable(mugId));
+    }
+
+    @Test
+    void stockChangeRefreshesTheCachedAvailability() {
+        cartStore.add(userId, teaId, 3);
+        assertThrows(RuntimeException.class, () -> cartStore.add(userId, teaId, 1));
+
+        jdbcTemplate.update("UPDATE inventory SET qty_available = 5 WHERE product_id = ?", teaId);
+        cartStore.onStockChanged(new StockChangedEvent(teaId));
+
+        cartStore.add(userId, teaId, 2);
+        assertEquals(5, cartStore.view(userId).getTotalQuantity());
+    }
+
+    @Test
+    void reconcileChangesOnlyCartsHoldingTheProducts() {
+        cartStore.add(userId, mugId, 3);
+        assertEquals(1, cartStore.flush());
+
+        cartStore.reconcile(List.of(teaId), Map.of(teaId, 1));
+        assertEquals(0, cartStore.stats().get("dirtyCarts"));
+
+        cartStore.reconcile(List.of(), Map.of(mugId, 1));
+        assertEquals(1, cartStore.stats().get("dirtyCarts"));
+        assertEquals(1, cartStore.flush());
+        assertEquals(1, quantityInTable(mugId));
+    }
+
+    @Test
+    void checkoutRemovesOnlyLinesThatWereInTheCartWhenItWasRead() throws InterruptedException {
+        cartStore.add(userId, mugId, 2);
+        Thread.sleep(5);
+        LocalDateTime cartReadAt = LocalDateTime.now();
+        Thread.sleep(5);
+        // Added while the order was being placed
+        cartStore.add(userId, teaId, 1);
+
+        cartStore.removeCheckedOut(userId, List.of(mugId, teaId), cartReadAt);
+
+        assertFalse(cartStore.contains(userId, mugId));
+        assertTrue(cartStore.contains(userId, teaId));
+    }
+
+    @Test
+    void aFreshStoreRecoversCartsFromTheTable() {
+        cartStore.add(userId, mugId, 2);
+        cartStore.add(userId, teaId, 1);
+        cartStore.shutdown();
+
+        CartStore restarted = new CartStore(cartItemRepository, productRepository, jdbcTemplate, transactionManager,
+                true, 1_800_000L, 30_000L);
+
+        CartSummaryResponse cart = restarted.view(userId);
+        assertEquals(2, cart.getTotalItems());
+        assertEquals(3, cart.getTotalQuantity());
+        assertTrue(restarted.contains(userId, teaId));
+    }
+
+    private int quantityInTable(Long productId) {
+        return cartItemRepository.findByUserIdAndProductId(userId, productId)
+                .map(CartItem::getQuantity)
+                .orElse(0);
+    }
+
+    private Long createProduct(String sku, String price, int stock) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(new BigDecimal(price));
+        product.setSku(sku);
+        product.setQtyAvailable(stock);
+        Product savedProduct = productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(savedProduct);
+        inventory.setQtyAvailable(stock);
+        inventory.setQtyReserved(0);
+        inventoryRepository.save(inventory);
+
+        return savedProduct.getId();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.CartItem;
+import com.example.ecommerce.backend.model.JobCheckpoint;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.JobCheckpointRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"app.cartPurgeChunkSize=2", "app.cartPurgePauseMs=0"})
+@Import(ExpiredCartPurger.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExpiredCartPurgerTest {
+
+    private static final int EXPIRED = 7;
+    private static final int FRESH = 3;
+
+    @Autowired
+    private ExpiredCartPurger purger;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> expiredIds = new ArrayList<>();
+    private final List<Long> freshIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Customer");
+        user.setEmail("customer@example.com");
+        user.setHashedPassword("hash");
+        userRepository.save(user);
+
+        Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusDays(45));
+        for (int i = 0; i < EXPIRED + FRESH; i++) {
+            Product product = new Product();
+            product.setTitle("Product " + i);
+            product.setPrice(BigDecimal.ONE);
+            product.setSku("SKU-" + i);
+            productRepository.save(product);
+
+            CartItem item = new CartItem();
+            item.setUser(user);
+            item.setProduct(product);
+            Long id = cartItemRepository.save(item).getId();
+            if (i < EXPIRED) {
+                jdbcTemplate.update("UPDATE cart_items SET created_at = ? WHERE id = ?", expired, id);
+                expiredIds.add(id);
+            } else {
+                freshIds.add(id);
+            }
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        checkpointRepository.deleteAll();
+        cartItemRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void purgesExpiredLinesInChunksAndResetsTheCheckpoint() {
+        assertEquals(EXPIRED, purger.purge());
+
+        assertEquals(FRESH, cartItemRepository.count());
+        JobCheckpoint checkpoint = checkpointRepository.findById(ExpiredCartPurger.JOB_NAME).orElseThrow();
+        assertEquals(0L, checkpoint.getPosition());
+        assertEquals(null, checkpoint.getOwner());
+        assertEquals(0, purger.purge());
+    }
+
+    @Test
+    void lineInTheLastChunkThatExpiresLaterIsPurgedByALaterRun() {
+        // Chunks of two over seven expired lines: the last chunk also spans the first fresh line
+        assertEquals(EXPIRED, purger.purge());
+
+        jdbcTemplate.update("UPDATE cart_items SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(45)), freshIds.get(0));
+
+        assertEquals(1, purger.purge());
+        assertEquals(FRESH - 1, cartItemRepository.count());
+    }
+
+    @Test
+    void oldLineWrittenWithAHighIdAfterARunIsPurgedByTheNextRun() {
+        assertEquals(EXPIRED, purger.purge());
+
+        // The cart store writes lines back with the time they were first added
+        User user = userRepository.findAll().get(0);
+        Product product = new Product();
+        product.setTitle("Late product");
+        product.setPrice(BigDecimal.ONE);
+        product.setSku("SKU-LATE");
+        productRepository.save(product);
+        CartItem item = new CartItem();
+        item.setUser(user);
+        item.setProduct(product);
+        Long id = cartItemRepository.save(item).getId();
+        jdbcTemplate.update("UPDATE cart_items SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(45)), id);
+        assertTrue(id > freshIds.get(FRESH - 1));
+
+        assertEquals(1, purger.purge());
+        assertEquals(FRESH, cartItemRepository.count());
+    }
+
+    @Test
+    void resumesFromTheCheckpointOfAnInterruptedRun() {
+        // A previous run got as far as the fourth expired line before the node died
+        JobCheckpoint checkpoint = new JobCheckpoint(ExpiredCartPurger.JOB_NAME);
+        checkpoint.setPosition(expiredIds.get(3));
+        checkpoint.setOwner("dead-node");
+        checkpoint.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+        checkpointRepository.save(checkpoint);
+
+        assertEquals(EXPIRED - 3, purger.purge());
+        assertEquals(FRESH + 3, cartItemRepository.count());
+        // Only that run resumed; the next one starts from the lowest expired id again
+        assertEquals(3, purger.purge());
+        assertEquals(FRESH, cartItemRepository.count());
+    }
+
+    @Test
+    void skipsWhileAnotherNodeHoldsTheLease() {
+        JobCheckpoint checkpoint = new JobCheckpoint(ExpiredCartPurger.JOB_NAME);
+        checkpoint.setOwner("other-node");
+        checkpoint.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        checkpointRepository.save(checkpoint);
+
+        assertEquals(0, purger.purge());
+        assertEquals(EXPIRED + FRESH, cartItemRepository.count());
+    }
+}
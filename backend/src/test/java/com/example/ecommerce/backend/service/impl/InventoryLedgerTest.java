@@ -0,0 +1,158 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.InventorySnapshot;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.repository.InventoryMovementRepository;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import com.example.ecommerce.backend.repository.InventorySnapshotRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Settle window and retention at zero so a compaction folds and prunes everything written so far
+@DataJpaTest(properties = {
+        "app.inventoryJournalSettleMs=0",
+        "app.inventoryJournalRetentionDays=0"
+})
+@Import({InventoryLedger.class, InventoryJournal.class, InventoryManager.class, StockReservationEngine.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryLedgerTest {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private InventoryManager inventoryManager;
+
+    @Autowired
+    private StockReservationEngine stockReservationEngine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryMovementRepository movementRepository;
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        movementRepository.deleteAll();
+        snapshotRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void everyStockChangeIsJournaledAndRebuildsTheBalance() {
+        Long productId = createProduct("SKU-1", 100);
+        stockReservationEngine.reserve(productId, 5);
+        stockReservationEngine.reserveBatch(Map.of(productId, 10));
+        stockReservationEngine.release(productId, 2);
+        inventoryManager.updateStock(productId, 80);
+
+        assertEquals(5, movementRepository.count());
+        assertArrayEquals(new int[]{80, 13}, inventoryLedger.rebuildBalances().get(productId));
+        assertTrue(inventoryLedger.verify().isEmpty());
+    }
+
+    @Test
+    void rolledBackReservationLeavesNoMovement() {
+        Long productId = createProduct("SKU-2", 3);
+
+        assertThrows(RuntimeException.class, () -> stockReservationEngine.reserveBatch(Map.of(productId, 4)));
+
+        assertEquals(1, movementRepository.count());
+    }
+
+    @Test
+    void compactionFoldsTheJournalIntoSnapshots() {
+        Long productId = createProduct("SKU-3", 50);
+        stockReservationEngine.reserve(productId, 7);
+
+        assertEquals(1, inventoryLedger.compact());
+
+        InventorySnapshot snapshot = snapshotRepository.findById(productId).orElseThrow();
+        assertEquals(50, snapshot.getQtyAvailable());
+        assertEquals(7, snapshot.getQtyReserved());
+        assertEquals(0, movementRepository.count());
+
+        // Later movements form the tail on top of the snapshot
+        stockReservationEngine.release(productId, 7);
+        inventoryManager.updateStock(productId, 45);
+        assertArrayEquals(new int[]{45, 0}, inventoryLedger.rebuildBalances().get(productId));
+
+        inventoryLedger.compact();
+        snapshot = snapshotRepository.findById(productId).orElseThrow();
+        assertEquals(45, snapshot.getQtyAvailable());
+        assertEquals(0, snapshot.getQtyReserved());
+    }
+
+    @Test
+    void restoreRewritesDriftedInventoryFromTheLedger() {
+        Long productId = createProduct("SKU-4", 20);
+        stockReservationEngine.reserve(productId, 4);
+        inventoryLedger.compact();
+        stockReservationEngine.reserve(productId, 1);
+
+        // An unjournaled write, e.g. a manual SQL fix
+        jdbcTemplate.update("UPDATE inventory SET qty_available = 0, qty_reserved = 0 WHERE product_id = ?", productId);
+        assertEquals(1, inventoryLedger.verify().size());
+
+        assertEquals(1, inventoryLedger.restore());
+
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(20, inventory.getQtyAvailable());
+        assertEquals(5, inventory.getQtyReserved());
+        assertTrue(inventoryLedger.verify().isEmpty());
+    }
+
+    @Test
+    void seededSnapshotsStartAfterTheMovementsAlreadyInTheRow() {
+        Long productId = createProduct("SKU-5", 30);
+        stockReservationEngine.reserve(productId, 6);
+
+        inventoryLedger.seedSnapshots();
+
+        InventorySnapshot snapshot = snapshotRepository.findById(productId).orElseThrow();
+        assertEquals(30, snapshot.getQtyAvailable());
+        assertEquals(6, snapshot.getQtyReserved());
+        assertEquals(movementRepository.findLastMovementId(), snapshot.getLastMovementId());
+        // The journal tail is not counted a second time on top of the seeded balance
+        assertArrayEquals(new int[]{30, 6}, inventoryLedger.rebuildBalances().get(productId));
+    }
+
+    private Long createProduct(String sku, int stock) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setSku(sku);
+        product.setQtyAvailable(stock);
+        Long productId = productRepository.save(product).getId();
+
+        inventoryManager.createInventoryForNewProduct(productId, stock);
+        return productId;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Order;
+import com.example.ecommerce.backend.model.OrderItem;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.SalesTotal;
+import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.repository.OrderOutboxRepository;
+import com.example.ecommerce.backend.repository.OrderRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.repository.SalesTotalRepository;
+import com.example.ecommerce.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The poller is pushed out of the way so only the after-commit hand-off runs the tasks
+@DataJpaTest(properties = "app.orderOutboxPollMs=3600000")
+@Import(OrderOutbox.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxTest {
+
+    @Autowired
+    private OrderOutbox outbox;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SalesTotalRepository salesTotalRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Product ordered;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("Customer");
+        user.setEmail("customer@example.com");
+        user.setHashedPassword("hash");
+        user = userRepository.save(user);
+
+        ordered = createProduct("ORDERED");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxRepository.deleteAll();
+        salesTotalRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void committedOrderRunsItsTasksAfterCommit() throws InterruptedException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.enqueue(orderRepository.save(newOrder("ORD-1"))));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outboxRepository.countByProcessedAtIsNull() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, outboxRepository.countByProcessedAtIsNull());
+        assertEquals(3, outboxRepository.count());
+        assertEquals(1L, outbox.stats().get("ordersPlaced"));
+        assertEquals(2L, outbox.stats().get("unitsSold"));
+        // Kept in the database, so a restart does not lose them
+        SalesTotal total = salesTotalRepository.findAll().get(0);
+        assertEquals(1L, total.getOrderCount());
+        assertEquals(0, new BigDecimal("20.00").compareTo(total.getRevenue()));
+
+        // Already processed, so a poll finds nothing to repeat
+        assertEquals(0, outbox.poll());
+    }
+
+    @Test
+    void rolledBackOrderLeavesNoTasks() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outbox.enqueue(orderRepository.save(newOrder("ORD-2")));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0L, outbox.stats().get("ordersPlaced"));
+    }
+
+    private Order newOrder(String orderNumber) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderNumber(orderNumber);
+        order.setTotalPrice(new BigDecimal("20.00"));
+        OrderItem item = new OrderItem();
+        item.setProduct(ordered);
+        item.setQuantity(2);
+        item.setUnitPrice(BigDecimal.TEN);
+        order.addOrderItem(item);
+        return order;
+    }
+
+    private Product createProduct(String sku) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(BigDecimal.TEN);
+        product.setSku(sku);
+        product.setIsActive(true);
+        product.setQtyAvailable(10);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.dto.ProductCardResponse;
+import com.example.ecommerce.backend.model.CartItem;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.model.User;
+import com.example.ecommerce.backend.repository.CartItemRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import com.example.ecommerce.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({PopularityScoreRefresher.class, CatalogVersion.class})
+class PopularityScoreRefresherTest {
+
+    @Autowired
+    private PopularityScoreRefresher refresher;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void writesOnlyChangedScoresAndBestSellingSortsByThem() {
+        Product lamp = saveProduct("LAMP");
+        Product chair = saveProduct("CHAIR");
+        Product desk = saveProduct("DESK");
+        User first = saveUser("first@example.com");
+        User second = saveUser("second@example.com");
+        addToCart(first, lamp);
+        addToCart(second, lamp);
+        CartItem chairItem = addToCart(first, chair);
+
+        assertEquals(2, refresher.refresh());
+        assertEquals(Map.of(lamp.getId(), 2L, chair.getId(), 1L), scores());
+
+        List<Long> bestSelling = productRepository.findCardsByIsActive(true,
+                        PageRequest.of(0, 3, ProductSortPlanner.plan("popularity", "desc")))
+                .map(ProductCardResponse::id)
+                .getContent();
+        assertEquals(List.of(lamp.getId(), chair.getId(), desk.getId()), bestSelling);
+
+        long version = catalogVersion.current();
+        assertEquals(0, refresher.refresh());
+        assertEquals(version, catalogVersion.current());
+
+        cartItemRepository.delete(chairItem);
+        assertEquals(1, refresher.refresh());
+        assertEquals(Map.of(lamp.getId(), 2L), scores());
+    }
+
+    @Test
+    void rejectsSortKeysWithoutABackingColumn() {
+        assertThrows(RuntimeException.class, () -> ProductSortPlanner.plan("rating", "desc"));
+        assertThrows(RuntimeException.class, () -> ProductSortPlanner.plan("description", "asc"));
+    }
+
+    private Map<Long, Long> scores() {
+        Map<Long, Long> scores = new HashMap<>();
+        for (Object[] row : productRepository.findNonZeroPopularityScores()) {
+            scores.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return scores;
+    }
+
+    private Product saveProduct(String sku) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setSku(sku);
+        product.setQtyAvailable(10);
+        return productRepository.save(product);
+    }
+
+    private User saveUser(String email) {
+        User user = new User();
+        user.setName("Customer");
+        user.setEmail(email);
+        user.setHashedPassword("hash");
+        return userRepository.save(user);
+    }
+
+    private CartItem addToCart(User user, Product product) {
+        CartItem item = new CartItem();
+        item.setUser(user);
+        item.setProduct(product);
+        item.setQuantity(1);
+        return cartItemRepository.save(item);
+    }
+}
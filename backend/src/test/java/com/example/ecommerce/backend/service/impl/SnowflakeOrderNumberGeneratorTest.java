@@ -0,0 +1,89 @@
+package com.example.ecommerce.backend.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeOrderNumberGeneratorTest {
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    @Test
+    void orderNumbersAreUniqueAcrossThreadsAndNodes() throws Exception {
+        int threads = 16;
+        int perThread = 20_000;
+        SnowflakeOrderNumberGenerator nodeA = new SnowflakeOrderNumberGenerator(1, UTC);
+        SnowflakeOrderNumberGenerator nodeB = new SnowflakeOrderNumberGenerator(2, UTC);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < threads; t++) {
+                SnowflakeOrderNumberGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        seen.add(generator.nextOrderNumber());
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        }
+
+        assertEquals(threads * perThread, seen.size());
+    }
+
+    @Test
+    void idsIncreaseMonotonicallyOnOneNode() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7, UTC);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void orderNumberKeepsDatePrefixAndFitsColumn() {
+        String orderNumber = new SnowflakeOrderNumberGenerator(3, UTC).nextOrderNumber();
+        LocalDate today = LocalDate.now(UTC);
+        String expectedPrefix = "ORD-" + today.getYear()
+                + (today.getMonthValue() < 10 ? "0" : "") + today.getMonthValue()
+                + (today.getDayOfMonth() < 10 ? "0" : "") + today.getDayOfMonth() + "-";
+
+        assertTrue(orderNumber.startsWith(expectedPrefix), orderNumber);
+        assertTrue(orderNumber.length() <= 50);
+    }
+
+    @Test
+    void derivedNodeIdsDifferWithinASlash22() throws Exception {
+        assertEquals(0, SnowflakeOrderNumberGenerator.nodeIdFor(InetAddress.getByName("10.0.0.0")));
+        assertEquals(261, SnowflakeOrderNumberGenerator.nodeIdFor(InetAddress.getByName("10.0.1.5")));
+        assertEquals(1023, SnowflakeOrderNumberGenerator.nodeIdFor(InetAddress.getByName("10.0.3.255")));
+        assertEquals(261, SnowflakeOrderNumberGenerator.nodeIdFor(InetAddress.getByName("192.168.5.5")));
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(1024, UTC));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(-1, UTC));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({StockReconciler.class, ProductDetailCache.class, CatalogVersion.class})
+class StockReconcilerTest {
+
+    @Autowired
+    private StockReconciler reconciler;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void copiesInventoryQuantityOntoDriftedProductsOnly() {
+        Product lamp = saveProduct("LAMP", 10);
+        Product chair = saveProduct("CHAIR", 4);
+        Product desk = saveProduct("DESK", 2);
+
+        // Inventory written without the after-commit refresh reaching the product rows
+        inventoryRepository.updateStock(lamp.getId(), 7);
+        inventoryRepository.updateStock(desk.getId(), 0);
+        entityManager.clear();
+
+        assertEquals(List.of(lamp.getId(), desk.getId()),
+                productRepository.findStockDriftAfter(0L, PageRequest.of(0, 10)));
+
+        long version = catalogVersion.current();
+        assertEquals(2, reconciler.reconcile());
+        assertTrue(catalogVersion.current() > version);
+        entityManager.clear();
+
+        assertEquals(7, productRepository.findById(lamp.getId()).orElseThrow().getQtyAvailable());
+        assertEquals(4, productRepository.findById(chair.getId()).orElseThrow().getQtyAvailable());
+        assertEquals(0, productRepository.findById(desk.getId()).orElseThrow().getQtyAvailable());
+        assertEquals(0, reconciler.reconcile());
+        assertEquals(2L, reconciler.stats().get("totalRepaired"));
+    }
+
+    @Test
+    void productEntityWritesNeverTouchTheStockColumn() {
+        Product lamp = saveProduct("LAMP", 10);
+        entityManager.clear();
+
+        Product loaded = productRepository.findById(lamp.getId()).orElseThrow();
+        loaded.setQtyAvailable(99);
+        loaded.setTitle("Renamed lamp");
+        productRepository.saveAndFlush(loaded);
+        entityManager.clear();
+
+        Product reloaded = productRepository.findById(lamp.getId()).orElseThrow();
+        assertEquals("Renamed lamp", reloaded.getTitle());
+        assertEquals(10, reloaded.getQtyAvailable());
+    }
+
+    private Product saveProduct(String sku, int quantity) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setSku(sku);
+        product.setQtyAvailable(quantity);
+        entityManager.persist(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(product);
+        inventory.setQtyAvailable(quantity);
+        entityManager.persist(inventory);
+        entityManager.flush();
+        return product;
+    }
+}
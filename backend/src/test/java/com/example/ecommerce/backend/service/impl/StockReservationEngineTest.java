@@ -0,0 +1,124 @@
+package com.example.ecommerce.backend.service.impl;
+
+import com.example.ecommerce.backend.model.Inventory;
+import com.example.ecommerce.backend.model.Product;
+import com.example.ecommerce.backend.repository.InventoryMovementRepository;
+import com.example.ecommerce.backend.repository.InventoryRepository;
+import com.example.ecommerce.backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({StockReservationEngine.class, InventoryJournal.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationEngineTest {
+
+    @Autowired
+    private StockReservationEngine stockReservationEngine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @AfterEach
+    void cleanUp() {
+        inventoryMovementRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentReservationsOnOneSkuNeverOversell() throws Exception {
+        int stock = 25;
+        int threads = 64;
+        Long productId = createProductWithStock("HOT-SKU", stock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    if (stockReservationEngine.tryReserve(productId, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        Inventory inventory = inventoryRepository.findByProductId(productId).orElseThrow();
+        assertEquals(stock, reserved.get());
+        assertEquals(stock, inventory.getQtyReserved());
+        assertEquals(0, inventory.getAvailableForSale());
+        // Only successful reservations are journaled
+        assertEquals(stock, inventoryMovementRepository.count());
+    }
+
+    @Test
+    void multiItemReservationIsAllOrNothing() {
+        Long first = createProductWithStock("SKU-A", 5);
+        Long second = createProductWithStock("SKU-B", 1);
+
+        assertThrows(RuntimeException.class,
+                () -> stockReservationEngine.reserveAll(Map.of(first, 2, second, 3)));
+
+        assertEquals(0, inventoryRepository.findByProductId(first).orElseThrow().getQtyReserved());
+        assertEquals(0, inventoryRepository.findByProductId(second).orElseThrow().getQtyReserved());
+    }
+
+    @Test
+    void releaseCannotGoBelowZero() {
+        Long productId = createProductWithStock("SKU-C", 3);
+
+        stockReservationEngine.reserve(productId, 2);
+
+        assertThrows(RuntimeException.class, () -> stockReservationEngine.release(productId, 3));
+        stockReservationEngine.release(productId, 2);
+        assertEquals(0, inventoryRepository.findByProductId(productId).orElseThrow().getQtyReserved());
+    }
+
+    private Long createProductWithStock(String sku, int stock) {
+        Product product = new Product();
+        product.setTitle("Product " + sku);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setSku(sku);
+        product.setQtyAvailable(stock);
+        Product savedProduct = productRepository.save(product);
+
+        Inventory inventory = new Inventory();
+        inventory.setProduct(savedProduct);
+        inventory.setQtyAvailable(stock);
+        inventory.setQtyReserved(0);
+        inventoryRepository.save(inventory);
+
+        return savedProduct.getId();
+    }
+}